@@ -0,0 +1,34 @@
+package com.finstream.gateway.config;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.finstream.common.auth.IdentityHeader;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * The gateway verifies tokens with the key the wallet-service signs them with, and
+ * signs the identity it forwards with the secret the services share with it.
+ */
+@Configuration
+public class AuthConfig {
+
+    @Bean
+    JwtParser jwtParser(@Value("${jwt.secret}") String secret) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                .build();
+    }
+
+    @Bean
+    IdentityHeader identityHeader(@Value("${auth.identity.secret}") String secret,
+                                  @Value("${auth.identity.ttl-ms:30000}") long ttlMs) {
+        return new IdentityHeader(secret, ttlMs);
+    }
+}
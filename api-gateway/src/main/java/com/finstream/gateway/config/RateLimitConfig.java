@@ -0,0 +1,46 @@
+package com.finstream.gateway.config;
+
+import java.net.InetSocketAddress;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.finstream.common.ratelimit.InMemoryRateLimitStore;
+import com.finstream.common.ratelimit.RateLimitStore;
+import com.finstream.gateway.filter.InMemoryRateLimiter;
+import com.finstream.gateway.filter.JwtAuthenticationGlobalFilter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Buckets and client keys for {@link InMemoryRateLimiter}. Signed-in callers are limited
+ * per user, whatever address they come from; everyone else (login, registration) per
+ * address. The gateway is the edge, so that is the connection's own address: a client
+ * could put anything in {@code X-Forwarded-For}.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    // buckets are per replica; a RateLimitStore bean backed by a shared store replaces this one
+    @Bean
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    RateLimitStore rateLimitStore(@Value("${gateway.rate-limit.max-keys:100000}") int maxKeys,
+                                  @Value("${gateway.rate-limit.idle-expiry-ms:900000}") long idleExpiryMs) {
+        return new InMemoryRateLimitStore(maxKeys, idleExpiryMs);
+    }
+
+    @Bean
+    KeyResolver userOrAddressKeyResolver() {
+        return exchange -> {
+            String userId = exchange.getAttribute(JwtAuthenticationGlobalFilter.USER_ID_ATTRIBUTE);
+            if (userId != null) {
+                return Mono.just("user:" + userId);
+            }
+            InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+            return Mono.just("ip:" + (remote != null ? remote.getAddress().getHostAddress() : "unknown"));
+        };
+    }
+}
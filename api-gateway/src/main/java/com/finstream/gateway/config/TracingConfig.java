@@ -0,0 +1,36 @@
+package com.finstream.gateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.exporter.SpanExportingPredicate;
+
+/**
+ * The gateway is where most traces start, so its sampling probability
+ * ({@code management.tracing.sampling.probability}) decides what fraction of requests is
+ * traced end to end. Boot's WebFlux observation gives each request a server span, and
+ * Spring Cloud Gateway adds a client span per call downstream and sends its
+ * {@code traceparent} in place of whatever the client sent. Spans go to
+ * {@code management.zipkin.tracing.endpoint} when {@code tracing.export.type} is
+ * {@code zipkin}.
+ */
+@Configuration
+public class TracingConfig {
+
+    // with export off the trace context is still propagated; finished spans are just dropped
+    @Bean
+    @ConditionalOnProperty(name = "tracing.export.type", havingValue = "none", matchIfMissing = true)
+    SpanExportingPredicate noSpanExport() {
+        return span -> false;
+    }
+
+    // scrapes and probes would otherwise start a trace each
+    @Bean
+    ObservationPredicate skipActuatorObservations() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && request.getCarrier().getPath().value().startsWith("/actuator"));
+    }
+}
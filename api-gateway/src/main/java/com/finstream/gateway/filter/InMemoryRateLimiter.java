@@ -0,0 +1,120 @@
+package com.finstream.gateway.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.FilterArgsEvent;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.finstream.common.ratelimit.RateLimitPolicy;
+import com.finstream.common.ratelimit.RateLimitStore;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * The {@code RequestRateLimiter} backend, without Redis: buckets live in a
+ * {@link RateLimitStore}, one per route and client. A route sets its own quota with
+ * {@code in-memory-rate-limiter.capacity} and {@code in-memory-rate-limiter.period-ms}
+ * in its filter args; routes that don't use {@code gateway.rate-limit.*}. Every answer
+ * carries {@code X-RateLimit-Remaining}, and a refusal also carries
+ * {@code Retry-After}. A check is a map lookup and a short lock, so it runs on the event
+ * loop and a refused request never reaches a circuit breaker or a backend.
+ */
+@Component
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private final RateLimitStore store;
+    private final boolean enabled;
+    private final Config defaultConfig;
+    private final MeterRegistry meterRegistry;
+    // built from each route's config on first use; named after the route, so routes keep separate buckets
+    private final Map<String, RateLimitPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiter(RateLimitStore store, ConfigurationService configurationService,
+                               @Value("${gateway.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${gateway.rate-limit.capacity:600}") long capacity,
+                               @Value("${gateway.rate-limit.period-ms:60000}") long periodMs,
+                               MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.store = store;
+        this.enabled = enabled;
+        this.defaultConfig = new Config().setCapacity(capacity).setPeriodMs(periodMs);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.rate.limit.keys", store, RateLimitStore::size)
+                .description("Clients with a rate-limit bucket in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (!enabled) {
+            return Mono.just(new Response(true, Map.of()));
+        }
+        RateLimitStore.Decision decision = store.tryAcquire(id, policies.computeIfAbsent(routeId, this::policy));
+        counter(routeId, decision.allowed() ? "allowed" : "limited").increment();
+        String remaining = String.valueOf(decision.remaining());
+        if (decision.allowed()) {
+            return Mono.just(new Response(true, Map.of(REMAINING_HEADER, remaining)));
+        }
+        String retryAfterSeconds = String.valueOf((decision.retryAfterMillis() + 999) / 1000);
+        return Mono.just(new Response(false,
+                Map.of(REMAINING_HEADER, remaining, HttpHeaders.RETRY_AFTER, retryAfterSeconds)));
+    }
+
+    private RateLimitPolicy policy(String routeId) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        return new RateLimitPolicy(routeId, config.getCapacity(), config.getPeriodMs());
+    }
+
+    // a route's args were (re)bound; rebuild its policy on the next request
+    @Override
+    public void onApplicationEvent(FilterArgsEvent event) {
+        super.onApplicationEvent(event);
+        policies.remove(event.getRouteId());
+    }
+
+    private Counter counter(String routeId, String result) {
+        return counters.computeIfAbsent(routeId + ':' + result, k -> Counter.builder("gateway.rate.limit.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .description("Requests checked against a route's rate limit")
+                .register(meterRegistry));
+    }
+
+    /** A route's quota: {@code capacity} requests per client, refilled evenly over {@code periodMs}. */
+    public static class Config {
+
+        private long capacity;
+        private long periodMs;
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public Config setCapacity(long capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public long getPeriodMs() {
+            return periodMs;
+        }
+
+        public Config setPeriodMs(long periodMs) {
+            this.periodMs = periodMs;
+            return this;
+        }
+    }
+}
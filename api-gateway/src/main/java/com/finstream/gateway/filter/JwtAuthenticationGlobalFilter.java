@@ -0,0 +1,155 @@
+package com.finstream.gateway.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.finstream.common.auth.IdentityHeader;
+import com.finstream.common.auth.TokenCache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies the {@code auth_token} cookie once, at the edge, and forwards the caller as
+ * a signed {@link IdentityHeader}. The services trust that header instead of parsing
+ * the JWT again. Requests without a valid token get a 401 here and never reach a
+ * circuit breaker or a backend. The client's own copy of the header is always dropped.
+ * The caller's id is also left in {@value #USER_ID_ATTRIBUTE} for the rate limiter.
+ * <p>
+ * Verification is pure CPU with no I/O, so it runs on the event loop. Results are kept
+ * in a {@link TokenCache}, so a session's repeat requests cost a SHA-256 and a lookup
+ * rather than an HMAC and a JSON parse.
+ */
+@Component
+public class JwtAuthenticationGlobalFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
+    private static final String COOKIE = "auth_token";
+
+    private final JwtParser jwtParser;
+    private final IdentityHeader identityHeader;
+    private final TokenCache<Verified> cache;
+
+    private final boolean enabled;
+    private final Set<String> publicPaths;
+    private final long cacheTtlMs;
+
+    private final Counter cached;
+    private final Counter verified;
+    private final Counter rejected;
+    private final Counter missing;
+
+    public JwtAuthenticationGlobalFilter(JwtParser jwtParser, IdentityHeader identityHeader,
+                                         @Value("${gateway.auth.enabled:true}") boolean enabled,
+                                         @Value("${gateway.auth.public-paths:/api/wallet/login,/api/wallet/users}") List<String> publicPaths,
+                                         @Value("${gateway.auth.cache.max-size:50000}") int cacheMaxSize,
+                                         @Value("${gateway.auth.cache.ttl-ms:300000}") long cacheTtlMs,
+                                         MeterRegistry meterRegistry) {
+        this.jwtParser = jwtParser;
+        this.identityHeader = identityHeader;
+        this.cache = new TokenCache<>(cacheMaxSize);
+        this.enabled = enabled;
+        this.publicPaths = Set.copyOf(publicPaths);
+        this.cacheTtlMs = cacheTtlMs;
+        this.cached = counter(meterRegistry, "cached", "Requests authenticated from the verified-token cache");
+        this.verified = counter(meterRegistry, "verified", "Requests whose token signature and claims were checked");
+        this.rejected = counter(meterRegistry, "rejected", "Requests refused for an invalid or expired token");
+        this.missing = counter(meterRegistry, "missing", "Requests refused for having no token");
+        Gauge.builder("gateway.auth.cache.size", cache, TokenCache::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String result, String description) {
+        return Counter.builder("gateway.auth.requests").tag("result", result)
+                .description(description)
+                .register(registry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpRequest.Builder forwarded = request.mutate()
+                .headers(headers -> headers.remove(IdentityHeader.NAME));
+
+        if (!enabled || request.getMethod() == HttpMethod.OPTIONS
+                || publicPaths.contains(request.getPath().value())) {
+            return chain.filter(exchange.mutate().request(forwarded.build()).build());
+        }
+
+        HttpCookie cookie = request.getCookies().getFirst(COOKIE);
+        if (cookie == null || cookie.getValue().isEmpty()) {
+            missing.increment();
+            return reject(exchange, "Authentication required");
+        }
+        long now = System.currentTimeMillis();
+        Verified caller = verify(cookie.getValue(), now);
+        if (caller == null) {
+            return reject(exchange, "Invalid or expired token");
+        }
+
+        String identity = identityHeader.sign(caller.userId(), caller.expiresAtMillis(), now);
+        forwarded.headers(headers -> headers.set(IdentityHeader.NAME, identity));
+        exchange.getAttributes().put(USER_ID_ATTRIBUTE, caller.userId());
+        return chain.filter(exchange.mutate().request(forwarded.build()).build());
+    }
+
+    private Verified verify(String token, long now) {
+        TokenCache.Key key = TokenCache.key(token);
+        Verified hit = cache.get(key, now);
+        if (hit != null) {
+            cached.increment();
+            return hit;
+        }
+        Verified result;
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            result = new Verified(claims.getSubject(), expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        } catch (RuntimeException e) {
+            rejected.increment();
+            return null;
+        }
+        verified.increment();
+        cache.put(key, result, Math.min(result.expiresAtMillis(), now + cacheTtlMs), now);
+        return result;
+    }
+
+    // same body the wallet-service's filter writes, so the frontend sees no difference
+    private static Mono<Void> reject(ServerWebExchange exchange, String error) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = ("{\"error\":\"" + error + "\"}").getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    // after tracing, so rejected requests are traced too
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+
+    private record Verified(String userId, long expiresAtMillis) {
+    }
+}
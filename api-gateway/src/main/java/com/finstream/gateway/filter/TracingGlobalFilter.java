@@ -0,0 +1,39 @@
+package com.finstream.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.handler.TracingObservationHandler;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Returns the trace id of the request's server span as {@code X-Trace-Id}, for looking
+ * the request up. The span itself comes from Boot's WebFlux observation; it travels with
+ * the exchange, not a thread-local.
+ */
+@Component
+public class TracingGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerRequestObservationContext.findCurrent(exchange.getAttributes())
+            .map(context -> context.<TracingObservationHandler.TracingContext>get(TracingObservationHandler.TracingContext.class))
+            .map(TracingObservationHandler.TracingContext::getSpan)
+            .map(Span::context)
+            .ifPresent(trace -> exchange.getResponse().getHeaders().set(TRACE_ID_HEADER, trace.traceId()));
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,68 @@
+package com.finstream.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+
+import com.finstream.common.ratelimit.InMemoryRateLimitStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void countsDownRemainingThenRefusesWithRetryAfter() {
+        InMemoryRateLimiter limiter = limiter(true, 2, 60_000);
+
+        Response first = limiter.isAllowed("transfers", "user:1").block();
+        Response second = limiter.isAllowed("transfers", "user:1").block();
+        Response refused = limiter.isAllowed("transfers", "user:1").block();
+
+        assertThat(first.isAllowed()).isTrue();
+        assertThat(first.getHeaders()).containsEntry("X-RateLimit-Remaining", "1");
+        assertThat(second.getHeaders()).containsEntry("X-RateLimit-Remaining", "0");
+        assertThat(refused.isAllowed()).isFalse();
+        // one token every 30s; the header rounds the wait up to whole seconds
+        assertThat(refused.getHeaders()).containsEntry("Retry-After", "30");
+        assertThat(meterRegistry.counter("gateway.rate.limit.requests", "route", "transfers", "result", "limited").count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void roundsSubSecondWaitsUpToOneSecond() {
+        InMemoryRateLimiter limiter = limiter(true, 10, 1_000);
+        for (int i = 0; i < 10; i++) {
+            limiter.isAllowed("burst", "ip:1").block();
+        }
+
+        assertThat(limiter.isAllowed("burst", "ip:1").block().getHeaders()).containsEntry("Retry-After", "1");
+    }
+
+    @Test
+    void usesARoutesOwnQuotaAndKeepsRoutesApart() {
+        InMemoryRateLimiter limiter = limiter(true, 100, 60_000);
+        limiter.getConfig().put("login", new InMemoryRateLimiter.Config().setCapacity(1).setPeriodMs(60_000));
+
+        assertThat(limiter.isAllowed("login", "ip:1").block().isAllowed()).isTrue();
+        assertThat(limiter.isAllowed("login", "ip:1").block().isAllowed()).isFalse();
+        assertThat(limiter.isAllowed("wallets", "ip:1").block().isAllowed()).isTrue();
+    }
+
+    @Test
+    void allowsEverythingWhenDisabled() {
+        InMemoryRateLimiter limiter = limiter(false, 1, 60_000);
+
+        assertThat(limiter.isAllowed("login", "ip:1").block().isAllowed()).isTrue();
+        assertThat(limiter.isAllowed("login", "ip:1").block().isAllowed()).isTrue();
+    }
+
+    private InMemoryRateLimiter limiter(boolean enabled, long capacity, long periodMs) {
+        return new InMemoryRateLimiter(new InMemoryRateLimitStore(1_000, 60_000), mock(ConfigurationService.class),
+            enabled, capacity, periodMs, meterRegistry);
+    }
+}
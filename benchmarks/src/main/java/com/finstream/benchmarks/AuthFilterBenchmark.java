@@ -0,0 +1,101 @@
+package com.finstream.benchmarks;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.finstream.common.auth.IdentityHeader;
+import com.finstream.wallet.security.JwtAuthenticationFilter;
+import com.finstream.wallet.security.JwtUtil;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * {@link JwtAuthenticationFilter} over a request carrying {@code cookies} cookies.
+ * {@code authenticated} finds auth_token last and verifies it (from the verified-token
+ * cache after the first call, as for a logged-in session); {@code forwardedIdentity} is
+ * the same request as it arrives through the gateway, with the signed identity header; {@code missingToken}
+ * scans every cookie, finds none, and writes the 401, which isolates cookie extraction
+ * from the JWT work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthFilterBenchmark {
+
+    @Param({"1", "10"})
+    private int cookies;
+
+    private JwtAuthenticationFilter filter;
+    private Cookie[] withToken;
+    private Cookie[] withoutToken;
+    private IdentityHeader identityHeader;
+    private String userId;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtBenchmark.jwtUtil();
+        identityHeader = new IdentityHeader("benchmark-identity-secret-benchmark-identity", 30_000L);
+        filter = new JwtAuthenticationFilter(JwtBenchmark.verifier(jwtUtil, true), identityHeader);
+        userId = UUID.randomUUID().toString();
+        String token = jwtUtil.generateToken(UUID.fromString(userId), "bench@finstream.local");
+
+        // browsers send analytics and preference cookies alongside the auth cookie
+        withToken = new Cookie[cookies];
+        withoutToken = new Cookie[cookies];
+        for (int i = 0; i < cookies - 1; i++) {
+            withToken[i] = new Cookie("pref_" + i, "value-" + i);
+            withoutToken[i] = withToken[i];
+        }
+        withToken[cookies - 1] = new Cookie("auth_token", token);
+        withoutToken[cookies - 1] = new Cookie("pref_last", "value");
+    }
+
+    @Benchmark
+    public Object authenticated() throws ServletException, IOException {
+        MockHttpServletRequest request = request(withToken);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return request.getAttribute("userId");
+    }
+
+    @Benchmark
+    public Object forwardedIdentity() throws ServletException, IOException {
+        MockHttpServletRequest request = request(withoutToken);
+        long now = System.currentTimeMillis();
+        request.addHeader(IdentityHeader.NAME, identityHeader.sign(userId, now + 60_000L, now));
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return request.getAttribute("userId");
+    }
+
+    @Benchmark
+    public int missingToken() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(withoutToken), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(Cookie[] cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/wallet/me");
+        request.setCookies(cookies);
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.finstream.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.finstream.wallet.security.JwtUtil;
+import com.finstream.wallet.security.JwtVerifier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Wallet-service JWT checks. {@code validateThenExtract} is what the auth filter used to
+ * run on every authenticated request (two full parses); {@code parseClaims} is one parse,
+ * and {@code verifyCached} is what the filter runs now for a session's repeat requests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtUtil jwtUtil;
+    private JwtVerifier cachingVerifier;
+    private JwtVerifier uncachedVerifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = jwtUtil();
+        cachingVerifier = verifier(jwtUtil, true);
+        uncachedVerifier = verifier(jwtUtil, false);
+        token = jwtUtil.generateToken(UUID.randomUUID(), "bench@finstream.local");
+    }
+
+    static JwtUtil jwtUtil() {
+        return new JwtUtil(SECRET, 86_400_000L);
+    }
+
+    static JwtVerifier verifier(JwtUtil jwtUtil, boolean cache) {
+        return new JwtVerifier(jwtUtil, cache, 50_000, 300_000L, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUserId() {
+        return jwtUtil.extractUserId(token);
+    }
+
+    @Benchmark
+    public String validateThenExtract() {
+        return jwtUtil.validateToken(token) ? jwtUtil.extractUserId(token) : null;
+    }
+
+    @Benchmark
+    public String parseClaims() {
+        return jwtUtil.parseClaims(token).getSubject();
+    }
+
+    @Benchmark
+    public String verifyUncached() {
+        return uncachedVerifier.verify(token).userId();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return cachingVerifier.verify(token).userId();
+    }
+}
@@ -0,0 +1,138 @@
+package com.finstream.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.finstream.common.grpc.ReserveFundsRequest;
+import com.finstream.common.money.Money;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * BigDecimal/double amounts versus {@link Money} minor units on the transfer hot path:
+ * <ul>
+ *   <li>{@code reserve*}: encode and decode one ReserveFunds request, as the transaction-service
+ *       client and the wallet-service server do per synchronous transfer.</li>
+ *   <li>{@code allocate*}: BatchTransferService's per-sender loop, deciding {@code items}
+ *       transfers against a running balance.</li>
+ * </ul>
+ * Run: {@code java -jar benchmarks/target/benchmarks.jar MoneyBenchmark -prof gc}; the gc
+ * profiler's alloc rate per op shows the allocation difference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings("deprecation")
+public class MoneyBenchmark {
+
+    @Param({"1000"})
+    private int items;
+
+    private final String transactionId = UUID.randomUUID().toString();
+    private final String userId = UUID.randomUUID().toString();
+
+    private BigDecimal[] decimalAmounts;
+    private Money[] moneyAmounts;
+    private BigDecimal decimalBalance;
+    private Money moneyBalance;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimalAmounts = new BigDecimal[items];
+        moneyAmounts = new Money[items];
+        long total = 0;
+        for (int i = 0; i < items; i++) {
+            long cents = 1 + random.nextInt(5_000);
+            decimalAmounts[i] = BigDecimal.valueOf(cents, 2);
+            moneyAmounts[i] = Money.ofMinor(cents, Money.USD);
+            total += cents;
+        }
+        // enough for roughly half the items, so both branches are taken
+        decimalBalance = BigDecimal.valueOf(total / 2, 2);
+        moneyBalance = Money.ofMinor(total / 2, Money.USD);
+    }
+
+    @Benchmark
+    public BigDecimal reserveDouble() throws InvalidProtocolBufferException {
+        BigDecimal amount = decimalAmounts[nextIndex()];
+        byte[] wire = ReserveFundsRequest.newBuilder()
+            .setTransactionId(transactionId)
+            .setUserId(userId)
+            .setAmount(amount.doubleValue())
+            .build()
+            .toByteArray();
+        return BigDecimal.valueOf(ReserveFundsRequest.parseFrom(wire).getAmount());
+    }
+
+    @Benchmark
+    public BigDecimal reserveMinor() throws InvalidProtocolBufferException {
+        Money amount = moneyAmounts[nextIndex()];
+        byte[] wire = ReserveFundsRequest.newBuilder()
+            .setTransactionId(transactionId)
+            .setUserId(userId)
+            .setAmountMinor(amount.getMinorUnits())
+            .build()
+            .toByteArray();
+        // the wallet-service still hands the ledger a BigDecimal
+        return Money.ofMinor(ReserveFundsRequest.parseFrom(wire).getAmountMinor(), Money.USD).toBigDecimal();
+    }
+
+    @Benchmark
+    public BigDecimal allocateBigDecimal() {
+        BigDecimal available = decimalBalance;
+        for (BigDecimal amount : decimalAmounts) {
+            if (amount.compareTo(available) <= 0) {
+                available = available.subtract(amount);
+            }
+        }
+        return available;
+    }
+
+    // what BatchTransferService does now: requests still arrive as BigDecimal JSON
+    @Benchmark
+    public long allocateMinorFromDecimal() {
+        long available = moneyBalance.getMinorUnits();
+        for (BigDecimal request : decimalAmounts) {
+            long amount = Money.of(request, Money.USD).getMinorUnits();
+            if (amount <= available) {
+                available -= amount;
+            }
+        }
+        return available;
+    }
+
+    @Benchmark
+    public long allocateMinor() {
+        long available = moneyBalance.getMinorUnits();
+        for (Money amount : moneyAmounts) {
+            if (amount.getMinorUnits() <= available) {
+                available -= amount.getMinorUnits();
+            }
+        }
+        return available;
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == items ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,61 @@
+package com.finstream.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.finstream.common.ratelimit.InMemoryRateLimitStore;
+import com.finstream.common.ratelimit.RateLimitPolicy;
+
+/**
+ * {@link InMemoryRateLimitStore#tryAcquire} from 8 threads with the login policy.
+ * {@code sameKey} is one client hammering login, all threads on one bucket;
+ * {@code manyKeys} spreads calls over 10k clients, so the cost is mostly the key map.
+ * Buckets run dry after 10 calls, so both measure the reject path, which is the one
+ * that matters under attack.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitingBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final RateLimitPolicy LOGIN = new RateLimitPolicy("login", 10, 60_000);
+
+    private InMemoryRateLimitStore store;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        store = new InMemoryRateLimitStore(100_000, 900_000);
+        keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "ip:10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public boolean sameKey() {
+        return store.tryAcquire(keys[0], LOGIN).allowed();
+    }
+
+    @Benchmark
+    public boolean manyKeys() {
+        return store.tryAcquire(keys[ThreadLocalRandom.current().nextInt(CLIENTS)], LOGIN).allowed();
+    }
+}
@@ -0,0 +1,70 @@
+package com.finstream.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.finstream.common.events.TransactionEvent;
+import com.finstream.common.events.TransactionEventDeserializer;
+import com.finstream.common.events.TransactionEventSerializer;
+import com.finstream.common.events.TransactionEvents;
+
+/**
+ * The {@code transactions} topic codec in both formats, through the same Kafka
+ * serializer/deserializer (and content-type header) the services use. Payload size per
+ * format is printed once at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionEventCodecBenchmark {
+
+    private static final String TOPIC = "transactions";
+
+    @Param({"protobuf", "json"})
+    private String format;
+
+    private TransactionEventSerializer serializer;
+    private TransactionEventDeserializer deserializer;
+    private TransactionEvent event;
+    private RecordHeaders headers;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = new TransactionEventSerializer();
+        serializer.configure(Map.of(TransactionEventSerializer.FORMAT_CONFIG, format), false);
+        deserializer = new TransactionEventDeserializer();
+        event = TransactionEvents.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("125.40"));
+        headers = new RecordHeaders();
+        payload = serializer.serialize(TOPIC, headers, event);
+        System.out.println(format + " payload: " + payload.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public TransactionEvent deserialize() {
+        return deserializer.deserialize(TOPIC, headers, payload);
+    }
+}
@@ -0,0 +1,103 @@
+package com.finstream.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.common.money.Money;
+import com.finstream.transaction.dto.TransactionRequest;
+import com.finstream.transaction.grpc.WalletGrpcClient;
+import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.repository.MonthlyRollupRepository;
+import com.finstream.transaction.repository.OutboxEventRepository;
+import com.finstream.transaction.repository.TransactionRepository;
+import com.finstream.transaction.service.DatabaseBulkhead;
+import com.finstream.transaction.service.RollupService;
+import com.finstream.transaction.service.TransactionOrchestrator;
+import com.finstream.transaction.service.TransferStageTimers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * The synchronous transfer ({@link TransactionOrchestrator#process}) with repositories,
+ * the transaction manager and the wallet-service client stubbed out: validation, the
+ * bulkhead, both DB transactions' Java side, the rollup deltas and the outbox row, but
+ * no I/O. What is left is the service's own per-transfer overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionOrchestratorBenchmark {
+
+    private TransactionOrchestrator orchestrator;
+    private TransactionRequest request;
+
+    @Setup
+    public void setUp() {
+        TransactionRepository transactionRepository = Stubs.repository(TransactionRepository.class, (method, args) -> {
+            switch (method) {
+                case "save":
+                    // what Hibernate does on persist
+                    Transaction tx = (Transaction) args[0];
+                    tx.setId(UUID.randomUUID());
+                    tx.prePersist();
+                    return tx;
+                case "finalizePending":
+                    return 1;
+                default:
+                    return null;
+            }
+        });
+        OutboxEventRepository outboxEventRepository = Stubs.repository(OutboxEventRepository.class,
+            (method, args) -> "save".equals(method) ? args[0] : null);
+        DatabaseBulkhead bulkhead = new DatabaseBulkhead(10, 2_000, new SimpleMeterRegistry());
+        RollupService rollupService = new RollupService(
+            Stubs.repository(MonthlyRollupRepository.class, (method, args) -> null), bulkhead);
+
+        Tracer tracer = Tracer.NOOP;
+        orchestrator = new TransactionOrchestrator(transactionRepository, outboxEventRepository,
+            new ApprovingWalletClient(), rollupService,
+            new TransactionTemplate(Stubs.transactionManager()), bulkhead,
+            new TransferStageTimers(new SimpleMeterRegistry(), tracer), tracer, Propagator.NOOP);
+
+        request = new TransactionRequest();
+        request.setSenderId(UUID.randomUUID());
+        request.setReceiverId(UUID.randomUUID());
+        request.setAmount(new BigDecimal("25.00"));
+    }
+
+    @Benchmark
+    public Transaction process() {
+        return orchestrator.process(request);
+    }
+
+    // the wallet-service always has the money
+    static class ApprovingWalletClient extends WalletGrpcClient {
+        @Override
+        public String reserveFunds(UUID transactionId, UUID userId, Money amount) {
+            return null;
+        }
+
+        @Override
+        public boolean releaseFunds(UUID transactionId) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.finstream.benchmarks;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.finstream.common.grpc.BalanceCheckRequest;
+import com.finstream.common.grpc.BalanceCheckResponse;
+import com.finstream.common.grpc.WalletServiceGrpc;
+import com.finstream.common.money.Money;
+import com.finstream.wallet.grpc.GrpcWalletService;
+import com.finstream.wallet.model.Wallet;
+import com.finstream.wallet.repository.FundHoldRepository;
+import com.finstream.wallet.repository.ProcessedTransferRepository;
+import com.finstream.wallet.repository.UserRepository;
+import com.finstream.wallet.repository.WalletRepository;
+import com.finstream.wallet.service.WalletBalanceCache;
+import com.finstream.wallet.service.WalletService;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * CheckSufficientBalance end to end through the real gRPC stack (stub, marshalling,
+ * server dispatch) over an in-process channel, with the wallet lookup served from
+ * memory. {@code cache=false} makes every call take the loader path that would hit
+ * Postgres.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WalletGrpcBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    private Server server;
+    private ManagedChannel channel;
+    private WalletServiceGrpc.WalletServiceBlockingStub stub;
+    private BalanceCheckRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        UUID userId = UUID.randomUUID();
+        Wallet wallet = new Wallet();
+        wallet.setUserId(userId);
+        wallet.setBalance(new BigDecimal("1000.00"));
+        wallet.setCurrency(Money.USD);
+
+        WalletRepository walletRepository = Stubs.repository(WalletRepository.class,
+            (method, args) -> "findByUserId".equals(method) ? Optional.of(wallet) : null);
+        WalletService walletService = new WalletService(walletRepository,
+            Stubs.repository(UserRepository.class, (method, args) -> null),
+            Stubs.repository(ProcessedTransferRepository.class, (method, args) -> null),
+            Stubs.repository(FundHoldRepository.class, (method, args) -> null),
+            null,
+            new WalletBalanceCache(cache, 1_000, 60_000, new SimpleMeterRegistry()));
+
+        String name = "wallet-benchmark-" + UUID.randomUUID();
+        server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(new GrpcWalletService(walletService))
+            .build()
+            .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = WalletServiceGrpc.newBlockingStub(channel);
+        request = BalanceCheckRequest.newBuilder()
+            .setUserId(userId.toString())
+            .setAmountMinor(2_500)
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public BalanceCheckResponse checkSufficientBalance() {
+        return stub.checkSufficientBalance(request);
+    }
+}
@@ -0,0 +1,97 @@
+package com.finstream.common.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of what verifying a bearer token produced, so a session's repeat
+ * requests skip the signature check and claims parsing. Entries are keyed by the
+ * token's SHA-256, so the cache holds no usable credentials, and each one lives until
+ * the time its caller gives (the token's expiry, or sooner). Callers should only cache
+ * successful verifications: then a forged token pays for the full check every time and
+ * can't push live sessions out. When the cache is over {@code maxSize}, expired entries
+ * are swept first, then arbitrary ones.
+ */
+public final class TokenCache<V> {
+
+    private final ConcurrentHashMap<Key, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final int maxSize;
+
+    public TokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /** The key for {@code token}; compute it once per request and use it for both lookup and put. */
+    public static Key key(String token) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new Key(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    /** The cached value, or null if there is none or it has expired. */
+    public V get(Key key, long nowMillis) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (nowMillis < entry.cacheUntil) {
+            return entry.value;
+        }
+        entries.remove(key, entry);
+        return null;
+    }
+
+    public void put(Key key, V value, long cacheUntilMillis, long nowMillis) {
+        if (nowMillis >= cacheUntilMillis) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, cacheUntilMillis));
+        if (entries.size() > maxSize) {
+            shrink(nowMillis);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void shrink(long nowMillis) {
+        // one sweeper at a time; others carry on, briefly over the limit
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            entries.values().removeIf(e -> nowMillis >= e.cacheUntil);
+            // still full of live sessions: drop a tenth, in hash order, which is as good as random
+            int excess = entries.size() - maxSize;
+            if (excess > 0) {
+                int toRemove = excess + maxSize / 10;
+                Iterator<Entry<V>> it = entries.values().iterator();
+                while (toRemove-- > 0 && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /** The full 256-bit SHA-256 of a token, so two tokens can't share an entry. */
+    public record Key(long a, long b, long c, long d) {
+    }
+
+    private record Entry<V>(V value, long cacheUntil) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.finstream.common.events;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Reads {@link TransactionEvent} records. Records tagged as Protobuf are parsed directly;
+ * anything else is treated as the old JSON payload, so events already on the topic (or
+ * from producers not yet upgraded) keep working during the rollout.
+ */
+public class TransactionEventDeserializer implements Deserializer<TransactionEvent> {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    @Override
+    public TransactionEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        // no headers to go by: JSON payloads are objects, Protobuf never starts with '{'
+        return data.length > 0 && data[0] == '{' ? fromJson(data) : fromProtobuf(data);
+    }
+
+    @Override
+    public TransactionEvent deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers.lastHeader(TransactionEvents.CONTENT_TYPE_HEADER);
+        if (contentType != null
+                && TransactionEvents.PROTOBUF.equals(new String(contentType.value(), StandardCharsets.UTF_8))) {
+            return fromProtobuf(data);
+        }
+        return fromJson(data);
+    }
+
+    private static TransactionEvent fromProtobuf(byte[] data) {
+        TransactionEvent event;
+        try {
+            event = TransactionEvent.parseFrom(data);
+        } catch (InvalidProtocolBufferException e) {
+            throw new SerializationException("Invalid Protobuf transaction event", e);
+        }
+        // caught here the record is skipped like any unreadable one, not failed in the listener
+        checkUuid("sender_id", event.getSenderId());
+        checkUuid("receiver_id", event.getReceiverId());
+        if (!event.getTransactionId().isEmpty()) {
+            checkUuid("transaction_id", event.getTransactionId());
+        }
+        return event;
+    }
+
+    private static void checkUuid(String field, ByteString value) {
+        if (value.size() != TransactionEvents.UUID_BYTES) {
+            throw new SerializationException("Invalid Protobuf transaction event: " + field + " has "
+                + value.size() + " bytes, expected " + TransactionEvents.UUID_BYTES);
+        }
+    }
+
+    private TransactionEvent fromJson(byte[] data) {
+        try {
+            JsonNode node = objectMapper.readTree(data);
+            JsonNode transactionId = node.get("transactionId");
+            return TransactionEvents.of(
+                transactionId == null || transactionId.isNull() ? null : UUID.fromString(transactionId.asText()),
+                UUID.fromString(node.get("senderId").asText()),
+                UUID.fromString(node.get("receiverId").asText()),
+                new BigDecimal(node.get("amount").asText()));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Invalid JSON transaction event", e);
+        }
+    }
+}
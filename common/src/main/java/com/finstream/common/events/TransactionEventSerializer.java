@@ -0,0 +1,60 @@
+package com.finstream.common.events;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes {@link TransactionEvent} as Protobuf and tags the record with a content-type
+ * header. Setting {@value #FORMAT_CONFIG}=json writes the old JSON shape instead, for
+ * rolling out while some consumers still expect JSON.
+ */
+public class TransactionEventSerializer implements Serializer<TransactionEvent> {
+
+    public static final String FORMAT_CONFIG = "finstream.event.format";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private boolean json;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        json = format != null && "json".equalsIgnoreCase(format.toString());
+    }
+
+    @Override
+    public byte[] serialize(String topic, TransactionEvent data) {
+        if (data == null) {
+            return null;
+        }
+        return json ? toJson(data) : data.toByteArray();
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, TransactionEvent data) {
+        headers.remove(TransactionEvents.CONTENT_TYPE_HEADER);
+        headers.add(TransactionEvents.CONTENT_TYPE_HEADER,
+            (json ? TransactionEvents.JSON : TransactionEvents.PROTOBUF).getBytes(StandardCharsets.UTF_8));
+        return serialize(topic, data);
+    }
+
+    private byte[] toJson(TransactionEvent event) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("transactionId", TransactionEvents.transactionId(event));
+        body.put("senderId", TransactionEvents.senderId(event));
+        body.put("receiverId", TransactionEvents.receiverId(event));
+        body.put("amount", TransactionEvents.amount(event));
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not write transaction event as JSON", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.finstream.common.events;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import com.google.protobuf.ByteString;
+
+/**
+ * Conversions between {@link TransactionEvent} and the Java types the services use,
+ * plus the header that tells consumers how a record was encoded.
+ */
+public final class TransactionEvents {
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String PROTOBUF = "application/x-protobuf";
+    public static final String JSON = "application/json";
+
+    /** Ids are carried as the 16 big-endian bytes of the UUID. */
+    static final int UUID_BYTES = 16;
+
+    private TransactionEvents() {}
+
+    public static TransactionEvent of(UUID transactionId, UUID senderId, UUID receiverId, BigDecimal amount) {
+        TransactionEvent.Builder builder = TransactionEvent.newBuilder()
+            .setSenderId(toBytes(senderId))
+            .setReceiverId(toBytes(receiverId))
+            .setAmountUnscaled(amount.unscaledValue().longValueExact())
+            .setAmountScale(amount.scale());
+        if (transactionId != null) {
+            builder.setTransactionId(toBytes(transactionId));
+        }
+        return builder.build();
+    }
+
+    // null for events written before transaction ids were added
+    public static UUID transactionId(TransactionEvent event) {
+        return event.getTransactionId().isEmpty() ? null : toUuid(event.getTransactionId());
+    }
+
+    public static UUID senderId(TransactionEvent event) {
+        return toUuid(event.getSenderId());
+    }
+
+    public static UUID receiverId(TransactionEvent event) {
+        return toUuid(event.getReceiverId());
+    }
+
+    public static BigDecimal amount(TransactionEvent event) {
+        return new BigDecimal(BigInteger.valueOf(event.getAmountUnscaled()), event.getAmountScale());
+    }
+
+    static ByteString toBytes(UUID uuid) {
+        return ByteString.copyFrom(ByteBuffer.allocate(UUID_BYTES)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array());
+    }
+
+    static UUID toUuid(ByteString bytes) {
+        if (bytes.size() != UUID_BYTES) {
+            throw new IllegalArgumentException("UUID field has " + bytes.size() + " bytes, expected " + UUID_BYTES);
+        }
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
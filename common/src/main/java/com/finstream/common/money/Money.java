@@ -0,0 +1,98 @@
+package com.finstream.common.money;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * An amount as a {@code long} count of the currency's minor unit (cents for USD) plus
+ * an ISO 4217 code. Arithmetic is exact and allocation-free apart from the result, and
+ * overflow throws instead of wrapping. This is the form amounts take on the wire (gRPC
+ * int64 fields, the unscaled long in transfer events); {@link BigDecimal} is only used
+ * at the edges, for JSON and numeric columns.
+ */
+public final class Money implements Comparable<Money> {
+
+    // the platform runs a single currency; wallets are created in it
+    public static final String USD = "USD";
+
+    private static final int USD_SCALE = 2;
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, Objects.requireNonNull(currency, "currency"));
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0, currency);
+    }
+
+    /**
+     * Exact conversion: throws {@link ArithmeticException} if the amount is finer than
+     * the currency's minor unit (e.g. 0.001 USD) or does not fit in a long.
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        return ofMinor(amount.movePointRight(scale(currency)).longValueExact(), currency);
+    }
+
+    public long getMinorUnits() { return minorUnits; }
+    public String getCurrency() { return currency; }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale(currency));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    /** Digits after the point in the currency's minor unit: 2 for USD. */
+    public static int scale(String currency) {
+        // -1 for pseudo-currencies such as XAU, which have no minor unit
+        return USD.equals(currency) ? USD_SCALE : Math.max(0, Currency.getInstance(currency).getDefaultFractionDigits());
+    }
+}
@@ -0,0 +1,112 @@
+package com.finstream.common.ratelimit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token buckets in a map bounded by {@code maxKeys}. A bucket that has not been used for
+ * {@code idleExpiryMillis} is dropped. If that is at least the policy's refill time, the
+ * bucket would have been full again anyway, so dropping it changes nothing. Scanning
+ * traffic from ever-new addresses therefore can't grow the heap without limit. If the
+ * map is still over {@code maxKeys} after dropping idle buckets, arbitrary ones go,
+ * which resets their limits: bounded memory takes priority under a flood.
+ * <p>
+ * Sweeps piggyback on requests (at most one every half idle period, and one thread at
+ * a time), so the store needs no scheduler of its own.
+ */
+public final class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final int maxKeys;
+    private final long idleExpiryNanos;
+    private volatile long nextSweepNanos;
+
+    public InMemoryRateLimitStore(int maxKeys, long idleExpiryMillis) {
+        this.maxKeys = maxKeys;
+        this.idleExpiryNanos = TimeUnit.MILLISECONDS.toNanos(idleExpiryMillis);
+        this.nextSweepNanos = System.nanoTime() + idleExpiryNanos / 2;
+    }
+
+    @Override
+    public Decision tryAcquire(String key, RateLimitPolicy policy) {
+        long now = System.nanoTime();
+        String bucketKey = policy.name() + ':' + key;
+        TokenBucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(policy, now));
+            if (buckets.size() > maxKeys) {
+                sweep(now, true);
+            }
+        }
+        if (now - nextSweepNanos >= 0) {
+            sweep(now, false);
+        }
+        return bucket.tryConsume(now);
+    }
+
+    @Override
+    public long size() {
+        return buckets.size();
+    }
+
+    private void sweep(long now, boolean overCapacity) {
+        // one sweeper at a time; others carry on, briefly over the limit
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            nextSweepNanos = now + idleExpiryNanos / 2;
+            buckets.values().removeIf(b -> now - b.lastUsedNanos() >= idleExpiryNanos);
+            int excess = buckets.size() - maxKeys;
+            if (overCapacity && excess > 0) {
+                // drop a tenth more than needed, in hash order, so this doesn't run on every new key
+                int toRemove = excess + maxKeys / 10;
+                Iterator<TokenBucket> it = buckets.values().iterator();
+                while (toRemove-- > 0 && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    /** Refills continuously rather than in steps, so a client can't time a burst to the step. */
+    static final class TokenBucket {
+        private final long capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+        private volatile long lastUsedNanos;
+
+        TokenBucket(RateLimitPolicy policy, long now) {
+            this.capacity = policy.capacity();
+            this.tokensPerNano = (double) policy.capacity() / TimeUnit.MILLISECONDS.toNanos(policy.periodMillis());
+            this.tokens = capacity;
+            this.refilledAt = now;
+            this.lastUsedNanos = now;
+        }
+
+        synchronized Decision tryConsume(long now) {
+            lastUsedNanos = now;
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return new Decision(true, (long) tokens, 0);
+            }
+            long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            return new Decision(false, 0, Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+
+        long lastUsedNanos() {
+            return lastUsedNanos;
+        }
+    }
+}
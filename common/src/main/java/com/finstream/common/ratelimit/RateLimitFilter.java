@@ -0,0 +1,232 @@
+package com.finstream.common.ratelimit;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Per-route rate limits from {@code rate-limit.policies}. Each policy names the methods
+ * and path patterns it covers, whether clients are told apart by address or by
+ * authenticated user, and its bucket size and period. The first policy that matches a
+ * request applies; requests no policy matches are not limited. A refused request gets
+ * 429 with {@code Retry-After}. Register it after the filter that sets the
+ * {@code userId} attribute, so user-keyed policies see it; requests without one fall
+ * back to the address.
+ * <p>
+ * A service only lists its policies; {@code rate-limit.enabled} (default true) and
+ * {@code rate-limit.trusted-proxies} are shared. {@code X-Forwarded-For} is honoured only
+ * when the connection comes from one of the trusted proxy addresses or CIDR blocks,
+ * since anyone else could put a fresh address in it on every attempt. By default no
+ * proxy is trusted and the connection address is used.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitStore store;
+    private final List<Route> routes = new ArrayList<>();
+    private final List<AddressBlock> trustedProxies = new ArrayList<>();
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimitStore store, Environment environment, MeterRegistry meterRegistry) {
+        this.store = store;
+        Binder binder = Binder.get(environment);
+        this.enabled = binder.bind("rate-limit.enabled", Boolean.class).orElse(true);
+        binder.bind("rate-limit.trusted-proxies", Bindable.listOf(String.class))
+                .orElseGet(List::of)
+                .forEach(block -> trustedProxies.add(AddressBlock.parse(block)));
+        Map<String, PolicyProperties> policies = binder
+                .bind("rate-limit.policies", Bindable.mapOf(String.class, PolicyProperties.class))
+                .orElseGet(Map::of);
+        policies.forEach((name, properties) -> routes.add(new Route(name, properties, meterRegistry)));
+        Gauge.builder("rate.limit.keys", store, RateLimitStore::size)
+                .description("Clients with a rate-limit bucket in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routes.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Route route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RateLimitStore.Decision decision = store.tryAcquire(clientKey(request, route.byUser), route.policy);
+        if (decision.allowed()) {
+            route.allowed.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        route.limited.increment();
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((decision.retryAfterMillis() + 999) / 1000));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+    }
+
+    private Route match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        String method = request.getMethod();
+        for (Route route : routes) {
+            if (route.matches(method, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request, boolean byUser) {
+        Object userId = byUser ? request.getAttribute("userId") : null;
+        return userId != null ? "user:" + userId : "ip:" + clientAddress(request);
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddress)) {
+            return remoteAddress;
+        }
+        // the last hop is the one the proxy appended; earlier ones are whatever the client sent
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || forwardedFor.isBlank()) {
+            return remoteAddress;
+        }
+        return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+    }
+
+    private boolean isTrustedProxy(String remoteAddress) {
+        if (trustedProxies.isEmpty() || remoteAddress == null) {
+            return false;
+        }
+        byte[] address = AddressBlock.literal(remoteAddress);
+        if (address == null) {
+            return false;
+        }
+        for (AddressBlock block : trustedProxies) {
+            if (block.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** One entry under {@code rate-limit.policies}; {@code key} is {@code ip} or {@code user}. */
+    public record PolicyProperties(List<String> methods, List<String> paths, String key,
+                                   long capacity, long periodMs) {
+    }
+
+    /** An address ({@code 10.0.0.7}) or CIDR block ({@code 10.0.0.0/8}, {@code fd00::/8}). */
+    private record AddressBlock(byte[] network, int prefixLength) {
+
+        static AddressBlock parse(String block) {
+            String trimmed = block.trim();
+            int slash = trimmed.indexOf('/');
+            byte[] network = literal(slash < 0 ? trimmed : trimmed.substring(0, slash));
+            if (network == null) {
+                throw new IllegalArgumentException("rate-limit.trusted-proxies: not an IP address: " + block);
+            }
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(trimmed.substring(slash + 1));
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("rate-limit.trusted-proxies: bad prefix length: " + block);
+            }
+            return new AddressBlock(network, prefixLength);
+        }
+
+        /** The bytes of an IP literal, or null; never does a DNS lookup. */
+        static byte[] literal(String address) {
+            boolean ipv4 = !address.isEmpty() && address.chars().allMatch(c -> c == '.' || (c >= '0' && c <= '9'));
+            if (!ipv4 && address.indexOf(':') < 0) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(address).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+
+    private static final class Route {
+        final RateLimitPolicy policy;
+        final List<String> methods;
+        final List<PathPattern> paths = new ArrayList<>();
+        final boolean byUser;
+        final Counter allowed;
+        final Counter limited;
+
+        Route(String name, PolicyProperties properties, MeterRegistry meterRegistry) {
+            this.policy = new RateLimitPolicy(name, properties.capacity(), properties.periodMs());
+            this.methods = properties.methods() != null
+                    ? properties.methods().stream().map(m -> m.toUpperCase(Locale.ROOT)).toList()
+                    : List.of();
+            if (properties.paths() != null) {
+                properties.paths().forEach(p -> paths.add(PathPatternParser.defaultInstance.parse(p)));
+            }
+            this.byUser = "user".equalsIgnoreCase(properties.key());
+            this.allowed = counter(meterRegistry, name, "allowed");
+            this.limited = counter(meterRegistry, name, "limited");
+        }
+
+        private static Counter counter(MeterRegistry registry, String policy, String result) {
+            return Counter.builder("rate.limit.requests")
+                    .tag("policy", policy)
+                    .tag("result", result)
+                    .description("Requests checked against a rate-limit policy")
+                    .register(registry);
+        }
+
+        boolean matches(String method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (PathPattern pattern : paths) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.finstream.common.ratelimit;
+
+/**
+ * A token bucket's shape: up to {@code capacity} requests at once, refilled evenly at
+ * {@code capacity} per {@code periodMillis}. The name keeps buckets of different
+ * policies apart in a shared store, so it should be unique per policy.
+ */
+public record RateLimitPolicy(String name, long capacity, long periodMillis) {
+
+    public RateLimitPolicy {
+        if (capacity <= 0 || periodMillis <= 0) {
+            throw new IllegalArgumentException("Rate limit " + name + " needs a positive capacity and period");
+        }
+    }
+}
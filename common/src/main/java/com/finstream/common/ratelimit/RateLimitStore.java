@@ -0,0 +1,22 @@
+package com.finstream.common.ratelimit;
+
+/**
+ * Where the buckets live. {@link InMemoryRateLimitStore} keeps them per process, so each
+ * replica enforces its own share. A store backed by something shared (Redis, say) can
+ * implement this to enforce one limit across replicas; the callers don't change.
+ */
+public interface RateLimitStore {
+
+    /** Takes one token from {@code key}'s bucket for {@code policy}, if it has one. */
+    Decision tryAcquire(String key, RateLimitPolicy policy);
+
+    /** Buckets currently held, for monitoring; -1 if the store can't tell cheaply. */
+    long size();
+
+    /**
+     * The outcome of one request: whether it may proceed, how many more it could make
+     * right now, and, when refused, how long until a token is back.
+     */
+    record Decision(boolean allowed, long remaining, long retryAfterMillis) {
+    }
+}
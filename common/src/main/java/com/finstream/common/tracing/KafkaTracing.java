@@ -0,0 +1,92 @@
+package com.finstream.common.tracing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * Trace context on Kafka records and outbox rows. HTTP and gRPC are traced by Micrometer
+ * Observation; the hand-rolled parts are the ones it has no hook for: batch listeners,
+ * and events stored in the outbox and sent later from another thread.
+ */
+public final class KafkaTracing {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private KafkaTracing() {}
+
+    public static void inject(Propagator propagator, TraceContext context, Headers headers) {
+        propagator.inject(context, headers, (carrier, key, value) -> {
+            carrier.remove(key);
+            carrier.add(key, value.getBytes(StandardCharsets.US_ASCII));
+        });
+    }
+
+    /** The current span's context as a {@code traceparent} value, to store with an outbox row; null outside a trace. */
+    public static String currentTraceparent(Tracer tracer, Propagator propagator) {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>(4);
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(TRACEPARENT);
+    }
+
+    /** A span builder under a stored {@code traceparent}, or null if there is none. */
+    public static Span.Builder childOf(Propagator propagator, String traceparent) {
+        return traceparent == null ? null : propagator.extract(Map.of(TRACEPARENT, traceparent), Map::get);
+    }
+
+    /**
+     * For a record polled at {@code polledMicros}: records a "{@code <topic> queued}" span
+     * covering the time from its producer timestamp until the poll, and starts the
+     * "{@code <topic> process}" consumer span for the caller to end. Both are children of
+     * the producer's span. Returns null if the record carries no trace context.
+     */
+    public static Span startProcessing(Propagator propagator, ConsumerRecord<?, ?> record, long polledMicros) {
+        Header header = record.headers().lastHeader(TRACEPARENT);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        if (record.timestamp() >= 0) {
+            long producedMicros = Math.min(record.timestamp() * 1_000L, polledMicros);
+            extract(propagator, record.headers())
+                .name(record.topic() + " queued")
+                .tag("messaging.kafka.partition", record.partition())
+                .startTimestamp(producedMicros, TimeUnit.MICROSECONDS)
+                .start()
+                .end(polledMicros, TimeUnit.MICROSECONDS);
+        }
+        return extract(propagator, record.headers())
+            .name(record.topic() + " process")
+            .kind(Span.Kind.CONSUMER)
+            .tag("messaging.kafka.partition", record.partition())
+            .tag("messaging.kafka.offset", record.offset())
+            .startTimestamp(polledMicros, TimeUnit.MICROSECONDS)
+            .start();
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1_000;
+    }
+
+    private static Span.Builder extract(Propagator propagator, Headers headers) {
+        return propagator.extract(headers, (carrier, key) -> {
+            Header header = carrier.lastHeader(key);
+            return header == null || header.value() == null ? null : new String(header.value(), StandardCharsets.US_ASCII);
+        });
+    }
+}
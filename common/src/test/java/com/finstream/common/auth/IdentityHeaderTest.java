@@ -0,0 +1,76 @@
+package com.finstream.common.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class IdentityHeaderTest {
+
+    private static final String SECRET = "a-test-secret-that-is-at-least-32-chars";
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final IdentityHeader header = new IdentityHeader(SECRET, 60_000);
+
+    @Test
+    void verifiesWhatItSigned() {
+        String value = header.sign("user-42", NOW + 3_600_000, NOW);
+
+        assertThat(header.verify(value, NOW)).isEqualTo("user-42");
+    }
+
+    @Test
+    void expiresAfterTheTtl() {
+        String value = header.sign("user-42", NOW + 3_600_000, NOW);
+
+        assertThat(header.verify(value, NOW + 59_999)).isEqualTo("user-42");
+        assertThat(header.verify(value, NOW + 60_000)).isNull();
+    }
+
+    @Test
+    void neverOutlivesTheToken() {
+        String value = header.sign("user-42", NOW + 1_000, NOW);
+
+        assertThat(header.verify(value, NOW + 1_000)).isNull();
+    }
+
+    @Test
+    void rejectsTamperedValues() {
+        String value = header.sign("user-42", NOW + 3_600_000, NOW);
+        String expiresAndSignature = value.substring(value.indexOf('.'));
+
+        assertThat(header.verify("user-43" + expiresAndSignature, NOW)).isNull();
+        // pushing the expiry out breaks the signature too
+        String[] parts = value.split("\\.");
+        assertThat(header.verify(parts[0] + "." + (Long.parseLong(parts[1]) + 1) + "." + parts[2], NOW)).isNull();
+    }
+
+    @Test
+    void rejectsValuesSignedWithAnotherSecret() {
+        IdentityHeader other = new IdentityHeader("another-secret-that-is-at-least-32-chars", 60_000);
+
+        assertThat(header.verify(other.sign("user-42", NOW + 3_600_000, NOW), NOW)).isNull();
+    }
+
+    @Test
+    void rejectsMalformedValues() {
+        assertThat(header.verify(null, NOW)).isNull();
+        assertThat(header.verify("", NOW)).isNull();
+        assertThat(header.verify("user-42", NOW)).isNull();
+        assertThat(header.verify("user-42.notanumber.c2ln", NOW)).isNull();
+        assertThat(header.verify("user-42." + (NOW + 1_000) + ".!!!", NOW)).isNull();
+    }
+
+    @Test
+    void keepsDotsInTheUserId() {
+        String value = header.sign("first.last", NOW + 3_600_000, NOW);
+
+        assertThat(header.verify(value, NOW)).isEqualTo("first.last");
+    }
+
+    @Test
+    void refusesShortSecrets() {
+        assertThatThrownBy(() -> new IdentityHeader("too-short", 60_000))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.finstream.common.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TokenCacheTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void returnsAValueUntilItsCacheUntilTime() {
+        TokenCache<String> cache = new TokenCache<>(10);
+        TokenCache.Key key = TokenCache.key("token-a");
+
+        cache.put(key, "user-a", NOW + 100, NOW);
+
+        assertThat(cache.get(key, NOW + 99)).isEqualTo("user-a");
+        assertThat(cache.get(key, NOW + 100)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void keysByTheWholeTokenHash() {
+        TokenCache<String> cache = new TokenCache<>(10);
+        cache.put(TokenCache.key("token-a"), "user-a", NOW + 100, NOW);
+
+        assertThat(TokenCache.key("token-a")).isEqualTo(TokenCache.key("token-a"));
+        assertThat(cache.get(TokenCache.key("token-b"), NOW)).isNull();
+        assertThat(cache.get(TokenCache.key("token-a"), NOW)).isEqualTo("user-a");
+    }
+
+    @Test
+    void skipsValuesThatAreAlreadyExpired() {
+        TokenCache<String> cache = new TokenCache<>(10);
+
+        cache.put(TokenCache.key("token-a"), "user-a", NOW, NOW);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void sweepsExpiredEntriesFirstWhenFull() {
+        TokenCache<String> cache = new TokenCache<>(3);
+        cache.put(TokenCache.key("old-1"), "x", NOW + 10, NOW);
+        cache.put(TokenCache.key("old-2"), "x", NOW + 10, NOW);
+        cache.put(TokenCache.key("live"), "live", NOW + 1_000, NOW);
+
+        cache.put(TokenCache.key("new"), "new", NOW + 1_000, NOW + 20);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(TokenCache.key("live"), NOW + 20)).isEqualTo("live");
+        assertThat(cache.get(TokenCache.key("new"), NOW + 20)).isEqualTo("new");
+    }
+
+    @Test
+    void staysBoundedWhenFullOfLiveSessions() {
+        TokenCache<String> cache = new TokenCache<>(20);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(TokenCache.key("token-" + i), "user", NOW + 1_000, NOW);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(20);
+    }
+}
@@ -0,0 +1,123 @@
+package com.finstream.common.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.ByteString;
+
+class TransactionEventCodecTest {
+
+    private static final String TOPIC = "transactions";
+
+    private final UUID transactionId = UUID.randomUUID();
+    private final UUID senderId = UUID.randomUUID();
+    private final UUID receiverId = UUID.randomUUID();
+    private final TransactionEvent event =
+        TransactionEvents.of(transactionId, senderId, receiverId, new BigDecimal("12.34"));
+    private final TransactionEventDeserializer deserializer = new TransactionEventDeserializer();
+
+    @Test
+    void roundTripsProtobufTaggedByHeader() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(Map.of()).serialize(TOPIC, headers, event);
+
+        assertThat(contentType(headers)).isEqualTo(TransactionEvents.PROTOBUF);
+        assertSameEvent(deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void readsJsonWhenTheHeaderSaysJson() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer(Map.of(TransactionEventSerializer.FORMAT_CONFIG, "json"))
+            .serialize(TOPIC, headers, event);
+
+        assertThat(contentType(headers)).isEqualTo(TransactionEvents.JSON);
+        assertThat(new String(data, StandardCharsets.UTF_8)).startsWith("{");
+        assertSameEvent(deserializer.deserialize(TOPIC, headers, data));
+    }
+
+    @Test
+    void treatsRecordsWithoutAContentTypeAsJson() {
+        // the shape written before the Protobuf rollout, with no header at all
+        String json = "{\"transactionId\":\"" + transactionId + "\",\"senderId\":\"" + senderId
+            + "\",\"receiverId\":\"" + receiverId + "\",\"amount\":12.34}";
+
+        assertSameEvent(deserializer.deserialize(TOPIC, new RecordHeaders(), json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void tellsTheFormatsApartWithoutHeaders() {
+        byte[] json = serializer(Map.of(TransactionEventSerializer.FORMAT_CONFIG, "json")).serialize(TOPIC, event);
+
+        assertSameEvent(deserializer.deserialize(TOPIC, json));
+        assertSameEvent(deserializer.deserialize(TOPIC, event.toByteArray()));
+    }
+
+    @Test
+    void keepsEventsWithoutATransactionId() {
+        TransactionEvent legacy = TransactionEvents.of(null, senderId, receiverId, new BigDecimal("1.00"));
+
+        TransactionEvent read = deserializer.deserialize(TOPIC, protobufHeaders(), legacy.toByteArray());
+
+        assertThat(TransactionEvents.transactionId(read)).isNull();
+        assertThat(TransactionEvents.senderId(read)).isEqualTo(senderId);
+    }
+
+    @Test
+    void rejectsIdsThatAreNotSixteenBytes() {
+        ByteString shortId = ByteString.copyFrom(new byte[8]);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, protobufHeaders(),
+                event.toBuilder().setSenderId(shortId).build().toByteArray()))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("sender_id has 8 bytes");
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, protobufHeaders(),
+                event.toBuilder().clearReceiverId().build().toByteArray()))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("receiver_id has 0 bytes");
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, protobufHeaders(),
+                event.toBuilder().setTransactionId(ByteString.copyFrom(new byte[17])).build().toByteArray()))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("transaction_id has 17 bytes");
+    }
+
+    @Test
+    void rejectsUnreadableJson() {
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, new RecordHeaders(),
+                "{\"senderId\":\"not-a-uuid\"}".getBytes(StandardCharsets.UTF_8)))
+            .isInstanceOf(SerializationException.class);
+    }
+
+    private void assertSameEvent(TransactionEvent read) {
+        assertThat(TransactionEvents.transactionId(read)).isEqualTo(transactionId);
+        assertThat(TransactionEvents.senderId(read)).isEqualTo(senderId);
+        assertThat(TransactionEvents.receiverId(read)).isEqualTo(receiverId);
+        assertThat(TransactionEvents.amount(read)).isEqualTo(new BigDecimal("12.34"));
+    }
+
+    private static TransactionEventSerializer serializer(Map<String, ?> config) {
+        TransactionEventSerializer serializer = new TransactionEventSerializer();
+        serializer.configure(config, false);
+        return serializer;
+    }
+
+    private static Headers protobufHeaders() {
+        Headers headers = new RecordHeaders();
+        headers.add(TransactionEvents.CONTENT_TYPE_HEADER, TransactionEvents.PROTOBUF.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    private static String contentType(Headers headers) {
+        return new String(headers.lastHeader(TransactionEvents.CONTENT_TYPE_HEADER).value(), StandardCharsets.UTF_8);
+    }
+}
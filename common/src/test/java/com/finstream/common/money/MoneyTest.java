@@ -0,0 +1,67 @@
+package com.finstream.common.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    void convertsExactlyToAndFromMinorUnits() {
+        Money money = Money.of(new BigDecimal("12.34"), Money.USD);
+
+        assertThat(money.getMinorUnits()).isEqualTo(1234);
+        assertThat(money.toBigDecimal()).isEqualTo(new BigDecimal("12.34"));
+        assertThat(Money.of(new BigDecimal("5"), Money.USD).getMinorUnits()).isEqualTo(500);
+        assertThat(Money.of(new BigDecimal("1.500"), Money.USD).getMinorUnits()).isEqualTo(150);
+    }
+
+    @Test
+    void refusesFractionsOfACent() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001"), Money.USD))
+            .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void refusesAmountsBeyondALongOfCents() {
+        BigDecimal tooLarge = BigDecimal.valueOf(Long.MAX_VALUE).movePointLeft(2).add(new BigDecimal("0.01"));
+
+        assertThatThrownBy(() -> Money.of(tooLarge, Money.USD)).isInstanceOf(ArithmeticException.class);
+        assertThat(Money.of(tooLarge.subtract(new BigDecimal("0.01")), Money.USD).getMinorUnits())
+            .isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void usesEachCurrencysMinorUnit() {
+        assertThat(Money.scale(Money.USD)).isEqualTo(2);
+        assertThat(Money.of(new BigDecimal("100"), "JPY").getMinorUnits()).isEqualTo(100);
+        assertThat(Money.of(new BigDecimal("1.234"), "BHD").getMinorUnits()).isEqualTo(1234);
+    }
+
+    @Test
+    void arithmeticThrowsInsteadOfWrapping() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, Money.USD);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, Money.USD))).isInstanceOf(ArithmeticException.class);
+        assertThat(max.minus(Money.ofMinor(1, Money.USD)).getMinorUnits()).isEqualTo(Long.MAX_VALUE - 1);
+    }
+
+    @Test
+    void refusesToMixCurrencies() {
+        Money dollars = Money.ofMinor(100, Money.USD);
+
+        assertThatThrownBy(() -> dollars.plus(Money.ofMinor(100, "EUR")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Currency mismatch");
+    }
+
+    @Test
+    void equalsByAmountAndCurrency() {
+        assertThat(Money.of(new BigDecimal("1.00"), Money.USD)).isEqualTo(Money.ofMinor(100, Money.USD));
+        assertThat(Money.ofMinor(100, Money.USD)).isNotEqualTo(Money.ofMinor(100, "EUR"));
+        assertThat(Money.ofMinor(1234, Money.USD)).hasToString("12.34 USD");
+    }
+}
@@ -0,0 +1,83 @@
+package com.finstream.common.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryRateLimitStoreTest {
+
+    private static final RateLimitPolicy TEN_PER_SECOND = new RateLimitPolicy("test", 10, 1_000);
+
+    @Test
+    void allowsABurstUpToCapacityThenRefuses() {
+        InMemoryRateLimitStore.TokenBucket bucket = new InMemoryRateLimitStore.TokenBucket(TEN_PER_SECOND, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryConsume(0).allowed()).isTrue();
+        }
+        RateLimitStore.Decision refused = bucket.tryConsume(0);
+
+        assertThat(refused.allowed()).isFalse();
+        assertThat(refused.retryAfterMillis()).isEqualTo(100);
+    }
+
+    @Test
+    void refillsContinuouslyAndNeverBeyondCapacity() {
+        InMemoryRateLimitStore.TokenBucket bucket = new InMemoryRateLimitStore.TokenBucket(TEN_PER_SECOND, 0);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryConsume(0);
+        }
+
+        // a tenth of the period buys back exactly one token
+        assertThat(bucket.tryConsume(TimeUnit.MILLISECONDS.toNanos(100)).allowed()).isTrue();
+        assertThat(bucket.tryConsume(TimeUnit.MILLISECONDS.toNanos(100)).allowed()).isFalse();
+
+        RateLimitStore.Decision afterIdle = bucket.tryConsume(TimeUnit.SECONDS.toNanos(60));
+        assertThat(afterIdle.allowed()).isTrue();
+        assertThat(afterIdle.remaining()).isEqualTo(9);
+    }
+
+    @Test
+    void keepsPoliciesAndKeysApart() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100, 60_000);
+        RateLimitPolicy one = new RateLimitPolicy("one", 1, 60_000);
+        RateLimitPolicy other = new RateLimitPolicy("other", 1, 60_000);
+
+        assertThat(store.tryAcquire("ip:1", one).allowed()).isTrue();
+        assertThat(store.tryAcquire("ip:1", one).allowed()).isFalse();
+        assertThat(store.tryAcquire("ip:2", one).allowed()).isTrue();
+        assertThat(store.tryAcquire("ip:1", other).allowed()).isTrue();
+        assertThat(store.size()).isEqualTo(3);
+    }
+
+    @Test
+    void staysWithinMaxKeysUnderAFloodOfNewClients() {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(50, 60_000);
+
+        for (int i = 0; i < 1_000; i++) {
+            store.tryAcquire("ip:" + i, TEN_PER_SECOND);
+        }
+
+        assertThat(store.size()).isLessThanOrEqualTo(50);
+    }
+
+    @Test
+    void dropsIdleBuckets() throws InterruptedException {
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore(100, 20);
+        store.tryAcquire("ip:idle", TEN_PER_SECOND);
+
+        Thread.sleep(50);
+        store.tryAcquire("ip:active", TEN_PER_SECOND);
+
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void refusesPoliciesWithoutCapacityOrPeriod() {
+        assertThatThrownBy(() -> new RateLimitPolicy("bad", 0, 1_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimitPolicy("bad", 1, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.finstream.common.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitFilterTest {
+
+    @Test
+    void limitsMatchingRoutesAndLeavesOthersAlone() throws Exception {
+        RateLimitFilter filter = filter(new MockEnvironment());
+
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1", null)).isEqualTo(200);
+        MockHttpServletResponse refused = call(filter, request("POST", "/api/auth/login", "10.0.0.1", null));
+        assertThat(refused.getStatus()).isEqualTo(429);
+        assertThat(refused.getHeader("Retry-After")).isEqualTo("60");
+        assertThat(send(filter, "GET", "/api/auth/login", "10.0.0.1", null)).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/wallet", "10.0.0.1", null)).isEqualTo(200);
+    }
+
+    @Test
+    void ignoresForwardedForFromUntrustedClients() throws Exception {
+        RateLimitFilter filter = filter(new MockEnvironment());
+
+        assertThat(send(filter, "POST", "/api/auth/login", "203.0.113.9", "198.51.100.1")).isEqualTo(200);
+        // a fresh X-Forwarded-For on every attempt must not buy a fresh bucket
+        assertThat(send(filter, "POST", "/api/auth/login", "203.0.113.9", "198.51.100.2")).isEqualTo(429);
+    }
+
+    @Test
+    void usesTheLastForwardedHopFromATrustedProxy() throws Exception {
+        RateLimitFilter filter = filter(new MockEnvironment()
+            .withProperty("rate-limit.trusted-proxies[0]", "172.28.0.0/16")
+            .withProperty("rate-limit.trusted-proxies[1]", "fd00::/8"));
+
+        assertThat(send(filter, "POST", "/api/auth/login", "172.28.5.10", "spoofed, 198.51.100.1")).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "172.28.5.10", "other, 198.51.100.1")).isEqualTo(429);
+        assertThat(send(filter, "POST", "/api/auth/login", "172.28.5.10", "198.51.100.2")).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "fd00::1", "198.51.100.3")).isEqualTo(200);
+        // just outside the block: the proxy's own address is the client
+        assertThat(send(filter, "POST", "/api/auth/login", "172.29.0.1", "198.51.100.4")).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "172.29.0.1", "198.51.100.5")).isEqualTo(429);
+    }
+
+    @Test
+    void keysUserPoliciesByTheAuthenticatedUser() throws Exception {
+        RateLimitFilter filter = filter(new MockEnvironment());
+
+        MockHttpServletRequest first = request("POST", "/api/transaction/transfer", "10.0.0.1", null);
+        first.setAttribute("userId", "user-1");
+        MockHttpServletRequest sameUserElsewhere = request("POST", "/api/transaction/transfer", "10.0.0.2", null);
+        sameUserElsewhere.setAttribute("userId", "user-1");
+        MockHttpServletRequest otherUser = request("POST", "/api/transaction/transfer", "10.0.0.1", null);
+        otherUser.setAttribute("userId", "user-2");
+
+        assertThat(call(filter, first).getStatus()).isEqualTo(200);
+        assertThat(call(filter, sameUserElsewhere).getStatus()).isEqualTo(429);
+        assertThat(call(filter, otherUser).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void canBeSwitchedOff() throws Exception {
+        RateLimitFilter filter = filter(new MockEnvironment().withProperty("rate-limit.enabled", "false"));
+
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1", null)).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1", null)).isEqualTo(200);
+    }
+
+    @Test
+    void rejectsTrustedProxiesThatAreNotAddresses() {
+        assertThatThrownBy(() -> filter(new MockEnvironment().withProperty("rate-limit.trusted-proxies[0]", "gateway")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("not an IP address");
+        assertThatThrownBy(() -> filter(new MockEnvironment().withProperty("rate-limit.trusted-proxies[0]", "10.0.0.0/33")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("bad prefix length");
+    }
+
+    // one login per address and one transfer per user, each per minute
+    private static RateLimitFilter filter(MockEnvironment environment) {
+        environment
+            .withProperty("rate-limit.policies.login.methods[0]", "POST")
+            .withProperty("rate-limit.policies.login.paths[0]", "/api/auth/login")
+            .withProperty("rate-limit.policies.login.key", "ip")
+            .withProperty("rate-limit.policies.login.capacity", "1")
+            .withProperty("rate-limit.policies.login.period-ms", "60000")
+            .withProperty("rate-limit.policies.transfer.paths[0]", "/api/transaction/**")
+            .withProperty("rate-limit.policies.transfer.key", "user")
+            .withProperty("rate-limit.policies.transfer.capacity", "1")
+            .withProperty("rate-limit.policies.transfer.period-ms", "60000");
+        return new RateLimitFilter(new InMemoryRateLimitStore(1_000, 60_000), environment, new SimpleMeterRegistry());
+    }
+
+    private static int send(RateLimitFilter filter, String method, String path, String remoteAddress,
+                            String forwardedFor) throws Exception {
+        return call(filter, request(method, path, remoteAddress, forwardedFor)).getStatus();
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+
+    private static MockHttpServletResponse call(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
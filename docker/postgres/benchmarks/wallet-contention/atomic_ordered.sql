@@ -0,0 +1,13 @@
+-- WalletService.moveFunds: in-place conditional UPDATEs, lower user_id first.
+\set a random(1, :wallets)
+\set b 1 + (:a + random(0, :wallets - 2)) % :wallets
+\set amount random(1, 100)
+BEGIN;
+\if :a < :b
+UPDATE bench_wallets SET balance = balance - :amount WHERE user_id = :a AND balance >= :amount;
+UPDATE bench_wallets SET balance = balance + :amount WHERE user_id = :b;
+\else
+UPDATE bench_wallets SET balance = balance + :amount WHERE user_id = :b;
+UPDATE bench_wallets SET balance = balance - :amount WHERE user_id = :a AND balance >= :amount;
+\endif
+END;
@@ -0,0 +1,11 @@
+-- The old WalletService.applyTransaction: load each wallet, change the balance in the
+-- application, write it back. Sender first, so A->B and B->A lock in opposite orders.
+\set a random(1, :wallets)
+\set b 1 + (:a + random(0, :wallets - 2)) % :wallets
+\set amount random(1, 100)
+BEGIN;
+SELECT balance AS sender_balance FROM bench_wallets WHERE user_id = :a \gset
+UPDATE bench_wallets SET balance = :sender_balance - :amount WHERE user_id = :a;
+SELECT balance AS receiver_balance FROM bench_wallets WHERE user_id = :b \gset
+UPDATE bench_wallets SET balance = :receiver_balance + :amount WHERE user_id = :b;
+END;
@@ -0,0 +1,47 @@
+#!/usr/bin/env bash
+# Wallet update contention benchmark: read-modify-write vs ordered atomic UPDATEs.
+# Runs pgbench inside the compose Postgres against a scratch table and prints, for each
+# variant, pgbench's throughput/latency/failure summary and whether money was conserved
+# (read-modify-write loses updates under concurrency, so its total drifts).
+#
+#   docker compose up -d postgres
+#   ./docker/postgres/benchmarks/wallet-contention/run.sh            # 8 hot wallets, 32 clients, 30s
+#   WALLETS=1000 CLIENTS=64 ./docker/postgres/benchmarks/wallet-contention/run.sh
+set -euo pipefail
+
+CONTAINER=${CONTAINER:-findash-postgres}
+DB_USER=${DB_USERNAME:-postgres}
+DB_NAME=${DB_NAME:-finstream}
+WALLETS=${WALLETS:-8}
+CLIENTS=${CLIENTS:-32}
+DURATION=${DURATION:-30}
+DIR="$(cd "$(dirname "$0")" && pwd)"
+
+docker exec "$CONTAINER" mkdir -p /tmp/wallet-contention
+for f in read_modify_write.sql atomic_ordered.sql; do
+  docker cp "$DIR/$f" "$CONTAINER:/tmp/wallet-contention/$f"
+done
+
+total() {
+  docker exec "$CONTAINER" psql -U "$DB_USER" -d "$DB_NAME" -tAc "SELECT sum(balance) FROM bench_wallets"
+}
+
+for variant in read_modify_write atomic_ordered; do
+  echo "=== $variant: $WALLETS wallets, $CLIENTS clients, ${DURATION}s ==="
+  docker exec -i "$CONTAINER" psql -q -U "$DB_USER" -d "$DB_NAME" -v wallets="$WALLETS" < "$DIR/setup.sql"
+  before=$(total)
+  # deadlocks are retried (pgbench 15+), so their cost shows up as latency and retries
+  docker exec "$CONTAINER" pgbench -n -U "$DB_USER" -d "$DB_NAME" \
+    -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" --max-tries=10 \
+    -D wallets="$WALLETS" -f "/tmp/wallet-contention/$variant.sql" \
+    | grep -E "^(tps|latency average|number of (transactions actually processed|failed transactions|transactions retried)|total number of retries)"
+  after=$(total)
+  if [ "$before" = "$after" ]; then
+    echo "money conserved: $after"
+  else
+    echo "money NOT conserved: before $before, after $after"
+  fi
+  echo
+done
+
+docker exec "$CONTAINER" psql -q -U "$DB_USER" -d "$DB_NAME" -c "DROP TABLE IF EXISTS bench_wallets"
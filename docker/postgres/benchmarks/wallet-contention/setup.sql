@@ -0,0 +1,8 @@
+-- Scratch table shaped like wallets; the benchmark never touches real data.
+DROP TABLE IF EXISTS bench_wallets;
+CREATE TABLE bench_wallets (
+    user_id bigint PRIMARY KEY,
+    balance numeric(38, 2) NOT NULL
+);
+INSERT INTO bench_wallets (user_id, balance)
+SELECT g, 1000000000.00 FROM generate_series(1, :wallets) AS g;
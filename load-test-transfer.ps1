@@ -0,0 +1,63 @@
+#!/usr/bin/env pwsh
+# Transfer load test - run once per thread mode and compare the numbers:
+#   VIRTUAL_THREADS_ENABLED=false docker compose up -d --build transaction-service; ./load-test-transfer.ps1
+#   VIRTUAL_THREADS_ENABLED=true  docker compose up -d --build transaction-service; ./load-test-transfer.ps1
+
+param(
+    [string]$BaseUrl = "http://localhost:8080",
+    [string]$MetricsUrl = "http://localhost:8082/actuator/prometheus",
+    [int]$Senders = 20,
+    [int]$Requests = 2000,
+    [int]$Concurrency = 200
+)
+
+$ErrorActionPreference = "Stop"
+$timestamp = [DateTimeOffset]::Now.ToUnixTimeSeconds()
+
+function New-LoadUser([string]$name) {
+    $session = New-Object Microsoft.PowerShell.Commands.WebRequestSession
+    $body = @{ fullName = $name; email = "$name@test.com"; password = "TestPass!123" } | ConvertTo-Json
+    Invoke-RestMethod -Uri "$BaseUrl/api/wallet/users" -Method POST -ContentType "application/json" `
+        -Body $body -WebSession $session | Out-Null
+    $me = Invoke-RestMethod -Uri "$BaseUrl/api/wallet/me" -Method GET -WebSession $session
+    $cookie = $session.Cookies.GetCookies($BaseUrl)["auth_token"].Value
+    return @{ id = [string]$me.id; cookie = "auth_token=$cookie" }
+}
+
+Write-Host "`n=== Creating $Senders senders and one receiver ===`n"
+$receiver = New-LoadUser "loadrecv$timestamp"
+$users = 1..$Senders | ForEach-Object { New-LoadUser "load$timestamp-$_" }
+
+Write-Host "=== Sending $Requests transfers of `$0.01, $Concurrency in flight ===`n"
+$wall = [Diagnostics.Stopwatch]::StartNew()
+$results = 0..($Requests - 1) | ForEach-Object -ThrottleLimit $Concurrency -Parallel {
+    $user = ($using:users)[$_ % $using:Senders]
+    $body = @{ senderId = $user.id; receiverId = $using:receiver.id; amount = 0.01 } | ConvertTo-Json
+    $sw = [Diagnostics.Stopwatch]::StartNew()
+    $status = 0
+    try {
+        $resp = Invoke-WebRequest -Uri "$using:BaseUrl/api/transaction/transfer" -Method POST `
+            -ContentType "application/json" -Body $body -Headers @{ Cookie = $user.cookie } -SkipHttpErrorCheck
+        $status = [int]$resp.StatusCode
+    } catch {
+        $status = -1
+    }
+    [pscustomobject]@{ status = $status; ms = $sw.Elapsed.TotalMilliseconds }
+}
+$wall.Stop()
+
+$sorted = $results.ms | Sort-Object
+function Pct([double]$p) { $sorted[[Math]::Min($sorted.Count - 1, [int][Math]::Floor($p * $sorted.Count))] }
+
+Write-Host ("Throughput: {0:N1} req/s over {1:N1}s" -f ($Requests / $wall.Elapsed.TotalSeconds), $wall.Elapsed.TotalSeconds)
+Write-Host ("Latency ms: p50 {0:N1}  p95 {1:N1}  p99 {2:N1}  max {3:N1}" -f (Pct 0.50), (Pct 0.95), (Pct 0.99), $sorted[-1])
+$results | Group-Object status | Sort-Object Name | ForEach-Object { Write-Host "HTTP $($_.Name): $($_.Count)" }
+
+Write-Host "`n=== transaction-service threads, pool and bulkhead ===`n"
+try {
+    (Invoke-WebRequest -Uri $MetricsUrl).Content -split "`n" |
+        Select-String -Pattern "^(jvm_threads_live|jvm_threads_peak|hikaricp_connections_(active|pending|timeout_total)|db_bulkhead_)" |
+        ForEach-Object { Write-Host $_.Line }
+} catch {
+    Write-Host "Metrics endpoint not reachable at $MetricsUrl"
+}
@@ -0,0 +1,261 @@
+package com.finstream.loadtest;
+
+import java.io.IOException;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.finstream.gateway.ApiGatewayApplication;
+import com.finstream.transaction.TransactionServiceApplication;
+import com.finstream.wallet.WalletServiceApplication;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Postgres, a Kafka broker, the wallet-service, the transaction-service and the gateway,
+ * all in this JVM. Each service runs from its own application.yml with only the
+ * infrastructure addresses overridden; the wallet gRPC server is in-process.
+ */
+final class Cluster implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(Cluster.class);
+
+    private static final String WALLET_DB = "finstream_lt_wallet";
+    private static final String TRANSACTION_DB = "finstream_lt_transaction";
+    private static final String GRPC_IN_PROCESS_NAME = "wallet-service";
+
+    // a servlet context fails to start with the (reactive) gateway on the classpath
+    private static final String GATEWAY_AUTOCONFIG = String.join(",",
+        "org.springframework.cloud.gateway.config.GatewayClassPathWarningAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayResilience4JCircuitBreakerAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayNoLoadBalancerClientAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayMetricsAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayRedisAutoConfiguration",
+        "org.springframework.cloud.gateway.config.SimpleUrlHandlerMappingGlobalCorsAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayReactiveLoadBalancerClientAutoConfiguration",
+        "org.springframework.cloud.gateway.config.GatewayReactiveOAuth2AutoConfiguration",
+        "org.springframework.cloud.gateway.config.LocalResponseCacheAutoConfiguration",
+        "org.springframework.cloud.gateway.discovery.GatewayDiscoveryClientAutoConfiguration");
+
+    private static final String GRPC_SERVER_AUTOCONFIG = String.join(",",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcAdviceAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcHealthServiceAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcMetadataConsulConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcMetadataEurekaConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcMetadataNacosConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcMetadataZookeeperConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcReflectionServiceAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcServerAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcServerFactoryAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcServerMetricAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcServerMicrometerTraceAutoConfiguration",
+        "net.devh.boot.grpc.server.autoconfigure.GrpcServerSecurityAutoConfiguration");
+
+    private static final String GRPC_CLIENT_AUTOCONFIG = String.join(",",
+        "net.devh.boot.grpc.client.autoconfigure.GrpcClientAutoConfiguration",
+        "net.devh.boot.grpc.client.autoconfigure.GrpcClientMetricAutoConfiguration",
+        "net.devh.boot.grpc.client.autoconfigure.GrpcClientHealthAutoConfiguration",
+        "net.devh.boot.grpc.client.autoconfigure.GrpcClientMicrometerTraceAutoConfiguration",
+        "net.devh.boot.grpc.client.autoconfigure.GrpcClientSecurityAutoConfiguration",
+        "net.devh.boot.grpc.client.autoconfigure.GrpcDiscoveryClientAutoConfiguration",
+        "net.devh.boot.grpc.common.autoconfigure.GrpcCommonCodecAutoConfiguration");
+
+    // the gateway is stateless: no database, Kafka or gRPC
+    private static final String DATA_AUTOCONFIG = String.join(",",
+        "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+        "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+        "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration",
+        "org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration");
+
+    private EmbeddedPostgres postgres;
+    private EmbeddedKafkaBroker kafka;
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    ConfigurableApplicationContext wallet;
+    ConfigurableApplicationContext transaction;
+    ConfigurableApplicationContext gateway;
+
+    private Cluster() {}
+
+    static Cluster start(LoadTestOptions options) throws Exception {
+        Cluster cluster = new Cluster();
+        try {
+            cluster.startAll(options);
+            return cluster;
+        } catch (Exception | Error e) {
+            cluster.close();
+            throw e;
+        }
+    }
+
+    private void startAll(LoadTestOptions options) throws Exception {
+        String serverUrl;
+        if (options.postgresUrl != null) {
+            serverUrl = options.postgresUrl.replaceAll("/+$", "");
+        } else {
+            // two Hikari pools per service plus headroom for the ledger compactor
+            postgres = EmbeddedPostgres.builder().setServerConfig("max_connections", "300").start();
+            serverUrl = "jdbc:postgresql://localhost:" + postgres.getPort();
+        }
+        createDatabase(serverUrl, options, WALLET_DB);
+        createDatabase(serverUrl, options, TRANSACTION_DB);
+        log.info("Postgres at {}", serverUrl);
+
+        kafka = new EmbeddedKafkaKraftBroker(1, 6, "transactions", "transaction-results");
+        kafka.afterPropertiesSet();
+        String brokers = kafka.getBrokersAsString();
+        log.info("Kafka at {}", brokers);
+
+        List<String> common = List.of(
+            "--server.port=0",
+            "--spring.kafka.bootstrap-servers=" + brokers,
+            "--spring.datasource.username=" + options.postgresUser,
+            "--spring.datasource.password=" + options.postgresPassword,
+            "--spring.threads.virtual.enabled=" + options.virtualThreads,
+            "--spring.cloud.gateway.enabled=false",
+            // the harness measures throughput, and a few simulated users would trip per-user limits
+            "--rate-limit.enabled=false",
+            "--logging.level.root=" + options.logLevel,
+            "--logging.level.com.finstream=" + options.logLevel);
+
+        List<String> walletArgs = new ArrayList<>(common);
+        walletArgs.add("--spring.config.location=" + config("wallet-service"));
+        walletArgs.add("--spring.datasource.url=" + serverUrl + "/" + WALLET_DB);
+        walletArgs.add("--grpc.server.port=-1");
+        walletArgs.add("--grpc.server.in-process-name=" + GRPC_IN_PROCESS_NAME);
+        // connection age only means something for TCP; the in-process server refuses the setting
+        walletArgs.add("--grpc.server.max-connection-age=");
+        walletArgs.add("--grpc.server.max-connection-age-grace=");
+        walletArgs.add("--spring.autoconfigure.exclude=" + GATEWAY_AUTOCONFIG);
+        wallet = run(WalletServiceApplication.class, WebApplicationType.SERVLET, walletArgs);
+
+        List<String> transactionArgs = new ArrayList<>(common);
+        transactionArgs.add("--spring.config.location=" + config("transaction-service"));
+        transactionArgs.add("--spring.datasource.url=" + serverUrl + "/" + TRANSACTION_DB);
+        transactionArgs.add("--grpc.client.walletService.address=in-process:" + GRPC_IN_PROCESS_NAME);
+        transactionArgs.add("--spring.autoconfigure.exclude=" + GATEWAY_AUTOCONFIG + "," + GRPC_SERVER_AUTOCONFIG);
+        transaction = run(TransactionServiceApplication.class, WebApplicationType.SERVLET, transactionArgs);
+
+        gateway = run(new Class<?>[] {ApiGatewayApplication.class, GatewayOnNetty.class}, WebApplicationType.REACTIVE, List.of(
+            "--spring.config.location=" + config("api-gateway"),
+            "--server.port=0",
+            "--WALLET_SERVICE_URL=" + walletUrl(),
+            "--TRANSACTION_SERVICE_URL=" + transactionUrl(),
+            "--gateway.rate-limit.enabled=false",
+            "--logging.level.root=" + options.logLevel,
+            "--spring.autoconfigure.exclude=" + DATA_AUTOCONFIG + "," + GRPC_SERVER_AUTOCONFIG + ","
+                + GRPC_CLIENT_AUTOCONFIG));
+        log.info("Services up: gateway {}, wallet {}, transaction {}", gatewayUrl(), walletUrl(), transactionUrl());
+    }
+
+    String walletUrl() {
+        return url(wallet);
+    }
+
+    String transactionUrl() {
+        return url(transaction);
+    }
+
+    String gatewayUrl() {
+        return url(gateway);
+    }
+
+    @Override
+    public void close() {
+        Collections.reverse(contexts);
+        for (ConfigurableApplicationContext context : contexts) {
+            try {
+                context.close();
+            } catch (RuntimeException e) {
+                log.warn("Failed to stop {}", context.getId(), e);
+            }
+        }
+        contexts.clear();
+        if (kafka != null) {
+            kafka.destroy();
+            kafka = null;
+        }
+        if (postgres != null) {
+            try {
+                postgres.close();
+            } catch (IOException e) {
+                log.warn("Failed to stop embedded Postgres", e);
+            }
+            postgres = null;
+        }
+    }
+
+    private ConfigurableApplicationContext run(Class<?> application, WebApplicationType type, List<String> args) {
+        return run(new Class<?>[] {application}, type, args);
+    }
+
+    private ConfigurableApplicationContext run(Class<?>[] sources, WebApplicationType type, List<String> args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(sources)
+            .web(type)
+            .run(args.toArray(String[]::new));
+        contexts.add(context);
+        return context;
+    }
+
+    /**
+     * The services bring Tomcat onto the classpath, and Spring Boot prefers it to Netty for a
+     * reactive server too. The gateway runs on Netty in production, so pin it here.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class GatewayOnNetty {
+
+        @Bean
+        NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+            return new NettyReactiveWebServerFactory();
+        }
+    }
+
+    private static String url(ConfigurableApplicationContext context) {
+        return "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    // every service jar has an application.yml at its root; pick this module's by path
+    private static String config(String module) throws IOException {
+        ClassLoader classLoader = Cluster.class.getClassLoader();
+        for (URL url : Collections.list(classLoader.getResources("application.yml"))) {
+            if (url.toString().contains("/" + module + "/")) {
+                return url.toString();
+            }
+        }
+        throw new IllegalStateException("No application.yml for " + module + " on the classpath");
+    }
+
+    private static void createDatabase(String serverUrl, LoadTestOptions options, String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(serverUrl + "/postgres",
+                options.postgresUser, options.postgresPassword);
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("select 1 from pg_database where datname = '" + name + "'")) {
+                if (rs.next()) {
+                    throw new IllegalStateException("Database " + name + " already exists; drop it or point "
+                        + "--postgres-url at a scratch server so every run starts from the same state");
+                }
+            }
+            statement.execute("create database " + name);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.finstream.loadtest;
+
+// the user-facing calls the harness drives; the lower-case name is used in options and reports
+enum Endpoint {
+    TRANSFER,
+    // one POST of batch-size transfers from the same sender
+    BATCH,
+    HISTORY,
+    BALANCE;
+
+    String label() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,49 @@
+package com.finstream.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies (microseconds, in an HdrHistogram recorder) and status codes for one
+ * endpoint during one phase. Safe to record into from any number of threads.
+ */
+final class EndpointStats {
+
+    // status recorded when the request never got a response (connect failure, timeout)
+    static final int NO_RESPONSE = -1;
+
+    private final Recorder recorder = new Recorder(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.max(1, latencyNanos / 1_000));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    // call once, after the phase is over
+    Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+
+    long errors() {
+        long errors = 0;
+        for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+            int status = entry.getKey();
+            if (status < 200 || status >= 300) {
+                errors += entry.getValue().sum();
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,149 @@
+package com.finstream.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives the workload for warmup + duration seconds and returns the stats of the
+ * measured part.
+ * <p>
+ * Closed loop ({@code rate=0}): {@code concurrency} clients each send their next request
+ * as soon as the last one answers, so throughput is whatever the system sustains.
+ * <p>
+ * Open loop ({@code rate>0}): requests are scheduled at fixed intervals and latency is
+ * measured from when a request <em>should</em> have been sent, not when it was. A stall
+ * therefore shows up in the percentiles of every request it delayed, rather than as a
+ * handful of slow ones (coordinated omission). At most {@code concurrency} requests are
+ * in flight; past that the schedule falls behind and the lag is charged to the requests.
+ */
+final class LoadDriver {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // the client's own response handling; kept apart so shutting the callers down can't reject it
+    private final ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // swapped from the warmup stats to the measured ones; writers read it per request
+    private volatile Map<Endpoint, EndpointStats> stats = newStats();
+    private volatile boolean running = true;
+
+    LoadDriver(LoadTestOptions options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(clientExecutor)
+            .build();
+    }
+
+    Map<Endpoint, EndpointStats> run(Workload workload) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        Thread generator = options.rate > 0
+            ? Thread.ofPlatform().name("load-pacer").start(() -> openLoop(workload, start, end))
+            : Thread.ofPlatform().name("load-clients").start(() -> closedLoop(workload));
+
+        log.info("Warming up for {}s", options.warmupSeconds);
+        sleepUntil(measureFrom);
+        Map<Endpoint, EndpointStats> measured = newStats();
+        stats = measured;
+        log.info("Measuring for {}s", options.durationSeconds);
+        sleepUntil(end);
+        running = false;
+        generator.join();
+
+        // requests already sent still count; give them the request timeout to finish
+        executor.shutdown();
+        if (!executor.awaitTermination(35, TimeUnit.SECONDS)) {
+            log.warn("Requests still in flight after the timeout; leaving them out");
+            executor.shutdownNow();
+        }
+        clientExecutor.shutdownNow();
+        stats = newStats(); // anything still completing no longer touches the report
+        return measured;
+    }
+
+    private void closedLoop(Workload workload) {
+        for (int i = 0; i < options.concurrency; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running) {
+                    Workload.Call call = workload.next(random);
+                    long sent = System.nanoTime();
+                    int status = send(call);
+                    stats.get(call.endpoint()).record(System.nanoTime() - sent, status);
+                }
+            });
+        }
+    }
+
+    private void openLoop(Workload workload, long start, long end) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        Semaphore inFlight = new Semaphore(options.concurrency);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long intended = start;
+        while (running && intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            inFlight.acquireUninterruptibly();
+            Workload.Call call = workload.next(random);
+            long scheduled = intended;
+            executor.execute(() -> {
+                try {
+                    int status = send(call);
+                    stats.get(call.endpoint()).record(System.nanoTime() - scheduled, status);
+                } finally {
+                    inFlight.release();
+                }
+            });
+            intended += interval;
+        }
+    }
+
+    private int send(Workload.Call call) {
+        try {
+            return client.send(call.request(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return EndpointStats.NO_RESPONSE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EndpointStats.NO_RESPONSE;
+        }
+    }
+
+    private static Map<Endpoint, EndpointStats> newStats() {
+        Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+        return stats;
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+}
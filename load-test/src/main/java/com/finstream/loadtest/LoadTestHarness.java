@@ -0,0 +1,27 @@
+package com.finstream.loadtest;
+
+import java.util.Map;
+
+/**
+ * End-to-end load test: starts the whole platform in this JVM against embedded Postgres
+ * and Kafka, seeds wallets, drives the configured request mix through the gateway (or
+ * straight at the services) and prints throughput and latency percentiles per endpoint.
+ * Options are listed in {@link LoadTestOptions#USAGE}.
+ */
+public final class LoadTestHarness {
+
+    private LoadTestHarness() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("--help")) {
+            System.out.println(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (Cluster cluster = Cluster.start(options)) {
+            Workload workload = Workload.seed(cluster, options);
+            Map<Endpoint, EndpointStats> stats = new LoadDriver(options).run(workload);
+            Report.print(System.out, options, stats);
+        }
+    }
+}
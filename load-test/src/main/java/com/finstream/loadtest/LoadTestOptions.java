@@ -0,0 +1,126 @@
+package com.finstream.loadtest;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options, all given as {@code --name=value}. Unknown names are rejected
+ * so a typo doesn't silently run the default.
+ */
+final class LoadTestOptions {
+
+    static final String USAGE = String.join("\n",
+        "Options (--name=value):",
+        "  users=1000              wallets to create and spread load over",
+        "  concurrency=64          closed loop: concurrent clients; open loop: max requests in flight",
+        "  rate=0                  open-loop requests/s across all endpoints (0 = closed loop)",
+        "  duration=60             measured seconds",
+        "  warmup=10               seconds of load before measuring starts",
+        "  mix=transfer:60,history:20,balance:20",
+        "  batch-size=100          transfers in each request of the batch endpoint",
+        "  sender-theta=0          Zipfian skew of senders, 0 (uniform) to 0.99",
+        "  receiver-theta=0.99     Zipfian skew of receivers (hot merchant wallets)",
+        "  amount=1.00             amount of every transfer",
+        "  initial-balance=1000000.00",
+        "  target=gateway          gateway, or direct to call the services' own ports",
+        "  virtual-threads=false   spring.threads.virtual.enabled for both services",
+        "  postgres-url=           use this Postgres instead of an embedded one",
+        "  postgres-user=postgres",
+        "  postgres-password=postgres",
+        "  log-level=WARN          root log level inside the services",
+        "  hgrm-dir=               write each endpoint's percentile distribution here");
+
+    final int users;
+    final int concurrency;
+    final int rate;
+    final int durationSeconds;
+    final int warmupSeconds;
+    final Map<Endpoint, Integer> mix;
+    final int batchSize;
+    final double senderTheta;
+    final double receiverTheta;
+    final BigDecimal amount;
+    final BigDecimal initialBalance;
+    final boolean direct;
+    final boolean virtualThreads;
+    final String postgresUrl;
+    final String postgresUser;
+    final String postgresPassword;
+    final String logLevel;
+    final String hgrmDir;
+
+    private LoadTestOptions(Map<String, String> values) {
+        users = Integer.parseInt(take(values, "users", "1000"));
+        concurrency = Integer.parseInt(take(values, "concurrency", "64"));
+        rate = Integer.parseInt(take(values, "rate", "0"));
+        durationSeconds = Integer.parseInt(take(values, "duration", "60"));
+        warmupSeconds = Integer.parseInt(take(values, "warmup", "10"));
+        mix = parseMix(take(values, "mix", "transfer:60,history:20,balance:20"));
+        batchSize = Integer.parseInt(take(values, "batch-size", "100"));
+        senderTheta = Double.parseDouble(take(values, "sender-theta", "0"));
+        receiverTheta = Double.parseDouble(take(values, "receiver-theta", "0.99"));
+        amount = new BigDecimal(take(values, "amount", "1.00"));
+        initialBalance = new BigDecimal(take(values, "initial-balance", "1000000.00"));
+        String target = take(values, "target", "gateway");
+        virtualThreads = Boolean.parseBoolean(take(values, "virtual-threads", "false"));
+        postgresUrl = emptyToNull(take(values, "postgres-url", ""));
+        postgresUser = take(values, "postgres-user", "postgres");
+        postgresPassword = take(values, "postgres-password", "postgres");
+        logLevel = take(values, "log-level", "WARN");
+        hgrmDir = emptyToNull(take(values, "hgrm-dir", ""));
+
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet() + "\n" + USAGE);
+        }
+        if (!target.equals("gateway") && !target.equals("direct")) {
+            throw new IllegalArgumentException("target must be gateway or direct");
+        }
+        direct = target.equals("direct");
+        if (users < 2 || concurrency < 1 || rate < 0 || durationSeconds < 1 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("users >= 2, concurrency >= 1, rate >= 0, duration >= 1 and warmup >= 0\n" + USAGE);
+        }
+        // the transaction-service refuses larger batches
+        if (batchSize < 1 || batchSize > 5_000) {
+            throw new IllegalArgumentException("batch-size must be 1 to 5000\n" + USAGE);
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg + "\n" + USAGE);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    // e.g. transfer:60,history:20,balance:20; endpoints left out get no traffic
+    private static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad mix entry " + part + "\n" + USAGE);
+            }
+            mix.put(Endpoint.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs at least one positive weight");
+        }
+        return mix;
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
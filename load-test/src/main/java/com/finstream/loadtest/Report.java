@@ -0,0 +1,69 @@
+package com.finstream.loadtest;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput, latency percentiles (milliseconds) and error counts per endpoint, plus an
+ * all-endpoints row. Errors are non-2xx responses and requests that got no response.
+ */
+final class Report {
+
+    private static final String ROW = "%-9s %9s %8s %9s %8s %8s %8s %9s %9s%n";
+
+    private Report() {}
+
+    static void print(PrintStream out, LoadTestOptions options, Map<Endpoint, EndpointStats> stats) throws IOException {
+        out.printf("%n%s, %d users, %s, %ds measured, sender theta %s, receiver theta %s, virtual threads %s%n",
+            options.rate > 0 ? "open loop at " + options.rate + " req/s, " + options.concurrency + " max in flight"
+                : "closed loop, " + options.concurrency + " clients",
+            options.users, options.direct ? "direct to services" : "through the gateway",
+            options.durationSeconds, options.senderTheta, options.receiverTheta, options.virtualThreads);
+        out.printf(ROW, "endpoint", "requests", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max");
+
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long errors = entry.getValue().errors();
+            row(out, entry.getKey().label(), histogram, errors, options.durationSeconds);
+            out.println("          statuses " + entry.getValue().statuses());
+            total.add(histogram);
+            totalErrors += errors;
+            if (options.hgrmDir != null) {
+                writeHgrm(Path.of(options.hgrmDir), entry.getKey().label(), histogram);
+            }
+        }
+        row(out, "all", total, totalErrors, options.durationSeconds);
+        if (options.hgrmDir != null) {
+            writeHgrm(Path.of(options.hgrmDir), "all", total);
+        }
+    }
+
+    private static void row(PrintStream out, String name, Histogram h, long errors, int seconds) {
+        out.printf(ROW, name, h.getTotalCount(), errors, String.format("%.1f", (double) h.getTotalCount() / seconds),
+            ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+            ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+    }
+
+    private static String ms(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+
+    // HdrHistogram's percentile distribution format, which the online plotter reads
+    private static void writeHgrm(Path dir, String name, Histogram histogram) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintStream file = new PrintStream(new FileOutputStream(dir.resolve(name + ".hgrm").toFile()))) {
+            histogram.outputPercentileDistribution(file, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.finstream.loadtest;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+import com.finstream.common.auth.IdentityHeader;
+import com.finstream.common.money.Money;
+import com.finstream.wallet.model.User;
+import com.finstream.wallet.model.Wallet;
+import com.finstream.wallet.repository.UserRepository;
+import com.finstream.wallet.repository.WalletRepository;
+import com.finstream.wallet.security.JwtUtil;
+
+/**
+ * The seeded users and the request mix: each {@link #next} picks an endpoint by weight
+ * and the wallets involved from the sender and receiver Zipfian distributions.
+ */
+final class Workload {
+
+    private static final Logger log = LoggerFactory.getLogger(Workload.class);
+
+    private static final int SEED_BATCH = 1_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // not a BCrypt hash, so these users can't log in; the harness mints their tokens instead
+    private static final String PASSWORD_HASH = "loadtest-no-login";
+
+    record Call(Endpoint endpoint, HttpRequest request) {}
+
+    private final UUID[] users;
+    private final String[] cookies;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final ZipfianGenerator senders;
+    private final ZipfianGenerator receivers;
+    private final String amount;
+    private final int batchSize;
+    private final String walletBase;
+    private final String transactionBase;
+    // direct mode only: stands in for the gateway, since the transaction-service takes no JWT
+    private final IdentityHeader identityHeader;
+
+    private Workload(UUID[] users, String[] cookies, LoadTestOptions options, String walletBase, String transactionBase,
+                     IdentityHeader identityHeader) {
+        this.users = users;
+        this.cookies = cookies;
+        this.walletBase = walletBase;
+        this.transactionBase = transactionBase;
+        this.identityHeader = identityHeader;
+        this.amount = Money.of(options.amount, Money.USD).toBigDecimal().toPlainString();
+        this.batchSize = options.batchSize;
+        this.senders = new ZipfianGenerator(users.length, options.senderTheta, 1);
+        this.receivers = new ZipfianGenerator(users.length, options.receiverTheta, 2);
+
+        List<Endpoint> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Endpoint, Integer> entry : options.mix.entrySet()) {
+            if (entry.getValue() > 0) {
+                total += entry.getValue();
+                weighted.add(entry.getKey());
+                cumulative.add(total);
+            }
+        }
+        this.endpoints = weighted.toArray(Endpoint[]::new);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Creates {@code options.users} users with funded wallets through the wallet-service's repositories. */
+    static Workload seed(Cluster cluster, LoadTestOptions options) {
+        UserRepository userRepository = cluster.wallet.getBean(UserRepository.class);
+        WalletRepository walletRepository = cluster.wallet.getBean(WalletRepository.class);
+        JwtUtil jwtUtil = cluster.wallet.getBean(JwtUtil.class);
+        BigDecimal balance = Money.of(options.initialBalance, Money.USD).toBigDecimal();
+
+        UUID[] users = new UUID[options.users];
+        String[] cookies = new String[options.users];
+        for (int from = 0; from < options.users; from += SEED_BATCH) {
+            int to = Math.min(options.users, from + SEED_BATCH);
+            List<User> batch = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                User user = new User();
+                user.setFullName("Load Test " + i);
+                user.setEmail("loadtest-" + i + "@finstream.local");
+                user.setPhoneNumber("+1999" + String.format("%07d", i));
+                user.setPasswordHash(PASSWORD_HASH);
+                batch.add(user);
+            }
+            List<Wallet> wallets = new ArrayList<>(to - from);
+            int i = from;
+            for (User user : userRepository.saveAll(batch)) {
+                Wallet wallet = new Wallet();
+                wallet.setUserId(user.getId());
+                wallet.setBalance(balance);
+                wallet.setCurrency(Money.USD);
+                wallets.add(wallet);
+                users[i] = user.getId();
+                cookies[i] = "auth_token=" + jwtUtil.generateToken(user.getId(), user.getEmail());
+                i++;
+            }
+            walletRepository.saveAll(wallets);
+        }
+        log.info("Seeded {} users with {} each", options.users, balance);
+
+        String walletBase = options.direct ? cluster.walletUrl() : cluster.gatewayUrl();
+        String transactionBase = options.direct ? cluster.transactionUrl() : cluster.gatewayUrl();
+        IdentityHeader identityHeader = null;
+        if (options.direct) {
+            Environment environment = cluster.transaction.getEnvironment();
+            identityHeader = new IdentityHeader(environment.getRequiredProperty("auth.identity.secret"),
+                environment.getProperty("auth.identity.ttl-ms", Long.class, 30_000L));
+        }
+        return new Workload(users, cookies, options, walletBase, transactionBase, identityHeader);
+    }
+
+    Call next(Random random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int e = 0;
+        while (pick >= cumulativeWeights[e]) {
+            e++;
+        }
+        Endpoint endpoint = endpoints[e];
+        int sender = senders.next(random);
+        return new Call(endpoint, switch (endpoint) {
+            case TRANSFER -> transactionRequest("/api/transaction/transfer", sender)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(transferJson(sender, random)))
+                .build();
+            case BATCH -> {
+                StringBuilder body = new StringBuilder("[");
+                for (int i = 0; i < batchSize; i++) {
+                    body.append(i == 0 ? "" : ",").append(transferJson(sender, random));
+                }
+                yield transactionRequest("/api/transaction/transfers/batch", sender)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                    .build();
+            }
+            case HISTORY -> transactionRequest("/api/transaction/history/" + users[sender] + "/page?limit=20", sender)
+                .GET()
+                .build();
+            case BALANCE -> request(walletBase + "/api/wallet/" + users[sender] + "/balance")
+                .header("Cookie", cookies[sender])
+                .GET()
+                .build();
+        });
+    }
+
+    private String transferJson(int sender, Random random) {
+        int receiver = receivers.next(random);
+        while (receiver == sender) {
+            receiver = receivers.next(random);
+        }
+        return "{\"senderId\":\"" + users[sender] + "\",\"receiverId\":\"" + users[receiver]
+            + "\",\"amount\":" + amount + "}";
+    }
+
+    private HttpRequest.Builder transactionRequest(String path, int user) {
+        HttpRequest.Builder builder = request(transactionBase + path).header("Cookie", cookies[user]);
+        if (identityHeader != null) {
+            long now = System.currentTimeMillis();
+            builder.header(IdentityHeader.NAME, identityHeader.sign(users[user].toString(), Long.MAX_VALUE, now));
+        }
+        return builder;
+    }
+
+    private static HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(REQUEST_TIMEOUT);
+    }
+}
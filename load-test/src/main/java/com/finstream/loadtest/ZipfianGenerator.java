@@ -0,0 +1,64 @@
+package com.finstream.loadtest;
+
+import java.util.Random;
+
+/**
+ * Zipfian picks over {@code items} indexes (Gray et al., "Quickly generating billion-record
+ * synthetic databases", as used by YCSB). Rank 0 is the hottest; ranks are mapped through
+ * a seeded shuffle so the hot wallets are not simply the first ones created. theta = 0
+ * is uniform, 0.99 is the YCSB default skew.
+ */
+final class ZipfianGenerator {
+
+    private final int items;
+    private final double theta;
+    private final double alpha;
+    private final double zetan;
+    private final double eta;
+    private final int[] permutation;
+
+    ZipfianGenerator(int items, double theta, long seed) {
+        if (items < 2 || theta < 0 || theta >= 1) {
+            throw new IllegalArgumentException("Zipfian needs at least 2 items and 0 <= theta < 1");
+        }
+        this.items = items;
+        this.theta = theta;
+        this.alpha = 1.0 / (1.0 - theta);
+        this.zetan = zeta(items, theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta(2, theta) / zetan);
+
+        permutation = new int[items];
+        for (int i = 0; i < items; i++) {
+            permutation[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = items - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = tmp;
+        }
+    }
+
+    int next(Random random) {
+        double u = random.nextDouble();
+        double uz = u * zetan;
+        int rank;
+        if (uz < 1.0) {
+            rank = 0;
+        } else if (uz < 1.0 + Math.pow(0.5, theta)) {
+            rank = 1;
+        } else {
+            rank = Math.min(items - 1, (int) (items * Math.pow(eta * u - eta + 1, alpha)));
+        }
+        return permutation[rank];
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,31 @@
+package com.finstream.transaction.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+
+/**
+ * Virtual-thread mode. With {@code spring.threads.virtual.enabled=true} Boot already
+ * runs Tomcat requests, @Scheduled tasks and Kafka listeners on virtual threads; this
+ * adds the gRPC client callbacks so a blocked stub call parks instead of holding a
+ * carrier. JDBC concurrency is capped separately by {@code DatabaseBulkhead}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ExecutionConfig {
+
+    @Bean(destroyMethod = "close")
+    ExecutorService grpcClientExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    GrpcChannelConfigurer virtualThreadChannelConfigurer(ExecutorService grpcClientExecutor) {
+        return (builder, name) -> builder.executor(grpcClientExecutor);
+    }
+}
@@ -0,0 +1,70 @@
+package com.finstream.transaction.config;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.finstream.common.auth.IdentityHeader;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Accepts the caller identity the gateway forwards once it has verified the JWT, and
+ * exposes it as the {@code userId} request attribute, as the wallet-service does.
+ * This service holds no JWT key and never parses tokens itself, so a request without
+ * the header is refused. {@code auth.identity.required=false} lets such requests through
+ * with no {@code userId}; it is meant for local development only.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    private final IdentityHeader identityHeader;
+    private final boolean required;
+
+    public GatewayIdentityFilter(@Value("${auth.identity.secret}") String secret,
+                                 @Value("${auth.identity.ttl-ms:30000}") long ttlMs,
+                                 @Value("${auth.identity.required:true}") boolean required) {
+        this.identityHeader = new IdentityHeader(secret, ttlMs);
+        this.required = required;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String identity = request.getHeader(IdentityHeader.NAME);
+        if (identity == null) {
+            if (required) {
+                unauthorized(response, "Authentication required");
+                return;
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String userId = identityHeader.verify(identity, System.currentTimeMillis());
+        if (userId == null) {
+            unauthorized(response, "Invalid or expired identity");
+            return;
+        }
+        request.setAttribute("userId", userId);
+        filterChain.doFilter(request, response);
+    }
+
+    private static void unauthorized(HttpServletResponse response, String error) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"" + error + "\"}");
+    }
+}
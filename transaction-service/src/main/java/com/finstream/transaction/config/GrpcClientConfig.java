@@ -0,0 +1,49 @@
+package com.finstream.transaction.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+
+/**
+ * Optional hedging for the wallet-service read RPCs. When enabled, a GetBalance or
+ * CheckSufficientBalance call that hasn't answered within the hedging delay is also sent
+ * to another backend (round robin picks a different pod) and the first answer wins.
+ * ReserveFunds and ReleaseFunds are writes and are never hedged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wallet.grpc.hedging.enabled", havingValue = "true")
+public class GrpcClientConfig {
+
+    private static final String WALLET_SERVICE = "com.finstream.common.grpc.WalletService";
+
+    @Bean
+    GrpcChannelConfigurer walletHedgingConfigurer(
+            @Value("${wallet.grpc.hedging.max-attempts:2}") int maxAttempts,
+            @Value("${wallet.grpc.hedging.delay-ms:50}") long delayMs) {
+        // service config values follow the gRPC JSON schema: numbers are doubles, durations are "<seconds>s"
+        Map<String, Object> hedgingPolicy = Map.of(
+            "maxAttempts", (double) maxAttempts,
+            "hedgingDelay", (delayMs / 1000.0) + "s",
+            "nonFatalStatusCodes", List.of("UNAVAILABLE"));
+        Map<String, Object> methodConfig = Map.of(
+            "name", List.of(
+                Map.of("service", WALLET_SERVICE, "method", "GetBalance"),
+                Map.of("service", WALLET_SERVICE, "method", "CheckSufficientBalance")),
+            "hedgingPolicy", hedgingPolicy);
+        Map<String, Object> serviceConfig = Map.of(
+            "loadBalancingConfig", List.of(Map.of("round_robin", Map.of())),
+            "methodConfig", List.of(methodConfig));
+
+        return (builder, name) -> {
+            if ("walletService".equals(name)) {
+                builder.defaultServiceConfig(serviceConfig).enableRetry();
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.finstream.transaction.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+/**
+ * Retries a transfer result that could not be applied, with growing pauses, until it
+ * goes through. The default handler gives up after ten quick attempts and skips the
+ * record, which would leave its transfer PENDING for good; holding the partition while
+ * the database is unreachable is the better trade. Records that can never succeed
+ * (conversion failures and the like) are still logged and skipped by the handler.
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Bean
+    CommonErrorHandler kafkaErrorHandler(@Value("${kafka.consumer.retry.initial-interval-ms:200}") long initialIntervalMs,
+                                         @Value("${kafka.consumer.retry.max-interval-ms:30000}") long maxIntervalMs) {
+        ExponentialBackOff backOff = new ExponentialBackOff(initialIntervalMs, 2.0);
+        backOff.setMaxInterval(maxIntervalMs);
+        return new DefaultErrorHandler(backOff);
+    }
+}
@@ -0,0 +1,24 @@
+package com.finstream.transaction.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Declares the transactions topic with enough partitions for the wallet-service to run
+ * several consumers. Events are keyed by sender, so ordering per wallet is kept.
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Bean
+    NewTopic transactionsTopic(@Value("${kafka.topics.transactions.partitions:6}") int partitions,
+                               @Value("${kafka.topics.transactions.replicas:1}") short replicas) {
+        return TopicBuilder.name("transactions")
+            .partitions(partitions)
+            .replicas(replicas)
+            .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.finstream.transaction.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.finstream.common.ratelimit.InMemoryRateLimitStore;
+import com.finstream.common.ratelimit.RateLimitFilter;
+import com.finstream.common.ratelimit.RateLimitStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Buckets for {@link RateLimitFilter}. They are per replica; a {@link RateLimitStore}
+ * bean backed by a shared store replaces this one. The filter runs after
+ * {@link GatewayIdentityFilter}, so user-keyed policies see the {@code userId} attribute.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    RateLimitStore rateLimitStore(@Value("${rate-limit.max-keys:100000}") int maxKeys,
+                                  @Value("${rate-limit.idle-expiry-ms:900000}") long idleExpiryMs) {
+        return new InMemoryRateLimitStore(maxKeys, idleExpiryMs);
+    }
+
+    @Bean
+    FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitStore rateLimitStore, Environment environment,
+                                                            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimitStore, environment, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -1,20 +1,42 @@
 package com.finstream.transaction.controller;
 
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import com.finstream.transaction.dto.BatchTransferResult;
+import com.finstream.transaction.dto.HistoryPage;
 import com.finstream.transaction.dto.TransactionRequest;
 import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.model.TransactionStatus;
+import com.finstream.transaction.service.BatchTransferService;
+import com.finstream.transaction.service.DatabaseBusyException;
+import com.finstream.transaction.service.RollupService;
 import com.finstream.transaction.service.TransactionOrchestrator;
+import com.finstream.transaction.service.TransferStatusService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -24,15 +46,30 @@ public class TransactionController {
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
     private final TransactionOrchestrator orchestrator;
+    private final BatchTransferService batchTransferService;
+    private final RollupService rollupService;
+    private final TransferStatusService transferStatusService;
 
-    public TransactionController(TransactionOrchestrator orchestrator) {
+    @Value("${transfer.status.max-wait-ms:25000}")
+    private long maxWaitMs;
+
+    public TransactionController(TransactionOrchestrator orchestrator, BatchTransferService batchTransferService,
+                                 RollupService rollupService, TransferStatusService transferStatusService) {
         this.orchestrator = orchestrator;
+        this.batchTransferService = batchTransferService;
+        this.rollupService = rollupService;
+        this.transferStatusService = transferStatusService;
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<?> transfer(@Valid @RequestBody TransactionRequest request) {
+    public ResponseEntity<?> transfer(@Valid @RequestBody TransactionRequest request,
+                                      @RequestParam(defaultValue = "false") boolean async,
+                                      HttpServletRequest servletRequest) {
         log.info("Received transfer request: sender={}, receiver={}, amount={}", 
             request.getSenderId(), request.getReceiverId(), request.getAmount());
+        if (!actsFor(servletRequest, request.getSenderId())) {
+            return forbidden();
+        }
         try {
             // Validate sender and receiver are different
             if (request.getSenderId().equals(request.getReceiverId())) {
@@ -41,10 +78,19 @@ public class TransactionController {
                     .body(Map.of("error", "Sender and receiver must be different"));
             }
 
+            if (async) {
+                Transaction pending = orchestrator.submit(request);
+                return ResponseEntity.accepted()
+                    .location(URI.create("/api/transaction/transfers/" + pending.getId()))
+                    .body(pending);
+            }
+
             log.info("Calling orchestrator.process()");
             Transaction tx = orchestrator.process(request);
             log.info("Transaction completed: {}", tx.getId());
             return ResponseEntity.ok(tx);
+        } catch (DatabaseBusyException e) {
+            return databaseBusy(e);
         } catch (IllegalArgumentException e) {
             log.warn("Bad request: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -56,8 +102,128 @@ public class TransactionController {
         }
     }
 
-    @org.springframework.web.bind.annotation.GetMapping("/history/{userId}")
-    public ResponseEntity<java.util.List<Transaction>> getHistory(@org.springframework.web.bind.annotation.PathVariable UUID userId) {
-        return ResponseEntity.ok(orchestrator.getHistory(userId));
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<?> transferBatch(@RequestBody List<TransactionRequest> requests,
+                                           HttpServletRequest servletRequest) {
+        log.info("Received batch transfer request with {} items", requests == null ? 0 : requests.size());
+        // items without a sender fail their own validation; any other sender refuses the whole batch
+        if (requests != null && requests.stream().anyMatch(r -> r != null && r.getSenderId() != null
+                && !actsFor(servletRequest, r.getSenderId()))) {
+            return forbidden();
+        }
+        try {
+            List<BatchTransferResult> results = batchTransferService.processBatch(requests);
+            // accepted items are PENDING until the wallet-service applies them
+            long accepted = results.stream()
+                .filter(r -> r.getStatus() == TransactionStatus.PENDING)
+                .count();
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("total", results.size());
+            payload.put("accepted", accepted);
+            payload.put("failed", results.size() - accepted);
+            payload.put("results", results);
+            return ResponseEntity.ok(payload);
+        } catch (DatabaseBusyException e) {
+            return databaseBusy(e);
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Batch processing failed", e);
+            return ResponseEntity.status(500)
+                .body(Map.of("error", "Batch processing failed: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/transfers/{transactionId}")
+    public ResponseEntity<?> getTransferStatus(@PathVariable UUID transactionId) {
+        return statusResponse(transferStatusService.getStatus(transactionId));
+    }
+
+    /**
+     * Long-poll: answers as soon as the transfer leaves PENDING, or with its current
+     * state after {@code waitMs}. The request thread is released while waiting.
+     */
+    @GetMapping("/transfers/{transactionId}/await")
+    public DeferredResult<ResponseEntity<?>> awaitTransfer(
+            @PathVariable UUID transactionId,
+            @RequestParam(defaultValue = "10000") long waitMs) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(Math.min(Math.max(waitMs, 1), maxWaitMs));
+        Runnable unsubscribe = transferStatusService.subscribe(transactionId, tx -> result.setResult(ResponseEntity.ok(tx)));
+        result.onCompletion(unsubscribe);
+        result.onTimeout(() -> {
+            try {
+                result.setResult(statusResponse(transferStatusService.getStatus(transactionId)));
+            } catch (DatabaseBusyException e) {
+                result.setResult(databaseBusy(e));
+            }
+        });
+
+        // read after subscribing so a result landing in between still wakes us
+        Optional<Transaction> current = transferStatusService.getStatus(transactionId);
+        if (current.isEmpty() || current.get().getStatus() != TransactionStatus.PENDING) {
+            result.setResult(statusResponse(current));
+        }
+        return result;
+    }
+
+    @GetMapping("/history/{userId}/page")
+    public ResponseEntity<?> getHistoryPage(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest servletRequest) {
+        if (!actsFor(servletRequest, userId)) {
+            return forbidden();
+        }
+        try {
+            HistoryPage page = orchestrator.getHistoryPage(userId, limit, cursor, from, to);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/summary/{userId}")
+    public ResponseEntity<?> getSummary(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) Integer months,
+            HttpServletRequest servletRequest) {
+        if (!actsFor(servletRequest, userId)) {
+            return forbidden();
+        }
+        return ResponseEntity.ok(rollupService.getSummary(userId, months));
+    }
+
+    // the caller GatewayIdentityFilter verified; absent only when auth.identity.required is off for local development
+    private static boolean actsFor(HttpServletRequest request, UUID userId) {
+        Object caller = request.getAttribute("userId");
+        return caller == null || userId.toString().equalsIgnoreCase(caller.toString());
+    }
+
+    private static ResponseEntity<?> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .body(Map.of("error", "Not allowed to act for another user"));
+    }
+
+    private static ResponseEntity<?> statusResponse(Optional<Transaction> tx) {
+        if (tx.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", "Transaction not found"));
+        }
+        return ResponseEntity.ok(tx.get());
+    }
+
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<?> databaseBusy(DatabaseBusyException e) {
+        log.warn("Shedding request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", e.getMessage()));
     }
 }
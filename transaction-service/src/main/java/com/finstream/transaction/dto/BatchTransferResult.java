@@ -0,0 +1,36 @@
+package com.finstream.transaction.dto;
+
+import java.util.UUID;
+
+import com.finstream.transaction.model.TransactionStatus;
+
+/**
+ * Outcome of one item in a batch transfer, reported in request order.
+ */
+public class BatchTransferResult {
+    private int index;
+    private UUID transactionId;
+    private TransactionStatus status;
+    private String error;
+
+    public BatchTransferResult() {}
+
+    public BatchTransferResult(int index, UUID transactionId, TransactionStatus status, String error) {
+        this.index = index;
+        this.transactionId = transactionId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+
+    public TransactionStatus getStatus() { return status; }
+    public void setStatus(TransactionStatus status) { this.status = status; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
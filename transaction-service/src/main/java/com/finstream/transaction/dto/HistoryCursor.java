@@ -0,0 +1,44 @@
+package com.finstream.transaction.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.finstream.transaction.model.Transaction;
+
+/**
+ * Keyset position in a history listing: the (timestamp, id) of the last row
+ * returned. Encoded as an opaque URL-safe string so clients don't depend on it.
+ */
+public final class HistoryCursor {
+    private final LocalDateTime timestamp;
+    private final UUID id;
+
+    public HistoryCursor(LocalDateTime timestamp, UUID id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static HistoryCursor after(Transaction tx) {
+        return new HistoryCursor(tx.getTimestamp(), tx.getId());
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public UUID getId() { return id; }
+}
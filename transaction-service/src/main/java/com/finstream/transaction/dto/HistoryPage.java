@@ -0,0 +1,32 @@
+package com.finstream.transaction.dto;
+
+import java.util.List;
+
+import com.finstream.transaction.model.Transaction;
+
+/**
+ * One page of a user's transaction history, newest first. Pass {@code nextCursor}
+ * back as {@code cursor} to fetch the following page.
+ */
+public class HistoryPage {
+    private List<Transaction> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public HistoryPage() {}
+
+    public HistoryPage(List<Transaction> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Transaction> getItems() { return items; }
+    public void setItems(List<Transaction> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,67 @@
+package com.finstream.transaction.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sent/received totals for a user, all-time and per month (newest month first).
+ * Only COMPLETED transfers are counted.
+ */
+public class TransactionSummary {
+    private UUID userId;
+    private BigDecimal totalSent = BigDecimal.ZERO;
+    private BigDecimal totalReceived = BigDecimal.ZERO;
+    private long sentCount;
+    private long receivedCount;
+    private List<MonthSummary> months = new ArrayList<>();
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public BigDecimal getTotalSent() { return totalSent; }
+    public void setTotalSent(BigDecimal totalSent) { this.totalSent = totalSent; }
+
+    public BigDecimal getTotalReceived() { return totalReceived; }
+    public void setTotalReceived(BigDecimal totalReceived) { this.totalReceived = totalReceived; }
+
+    public long getSentCount() { return sentCount; }
+    public void setSentCount(long sentCount) { this.sentCount = sentCount; }
+
+    public long getReceivedCount() { return receivedCount; }
+    public void setReceivedCount(long receivedCount) { this.receivedCount = receivedCount; }
+
+    public List<MonthSummary> getMonths() { return months; }
+    public void setMonths(List<MonthSummary> months) { this.months = months; }
+
+    public static class MonthSummary {
+        // "yyyy-MM"
+        private String month;
+        private BigDecimal sent = BigDecimal.ZERO;
+        private BigDecimal received = BigDecimal.ZERO;
+        private long sentCount;
+        private long receivedCount;
+
+        public MonthSummary() {}
+
+        public MonthSummary(String month) {
+            this.month = month;
+        }
+
+        public String getMonth() { return month; }
+        public void setMonth(String month) { this.month = month; }
+
+        public BigDecimal getSent() { return sent; }
+        public void setSent(BigDecimal sent) { this.sent = sent; }
+
+        public BigDecimal getReceived() { return received; }
+        public void setReceived(BigDecimal received) { this.received = received; }
+
+        public long getSentCount() { return sentCount; }
+        public void setSentCount(long sentCount) { this.sentCount = sentCount; }
+
+        public long getReceivedCount() { return receivedCount; }
+        public void setReceivedCount(long receivedCount) { this.receivedCount = receivedCount; }
+    }
+}
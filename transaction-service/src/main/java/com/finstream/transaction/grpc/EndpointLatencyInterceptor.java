@@ -0,0 +1,79 @@
+package com.finstream.transaction.grpc;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall.SimpleForwardingClientCall;
+import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.devh.boot.grpc.client.interceptor.GrpcGlobalClientInterceptor;
+
+/**
+ * Records client-side latency per method and per backend address, so one slow
+ * wallet-service pod shows up on its own instead of being averaged into the rest.
+ * The endpoint is the address the call was actually sent to. Timers are looked up in a
+ * local map after the first call, so the per-call cost is one map lookup.
+ */
+@GrpcGlobalClientInterceptor
+public class EndpointLatencyInterceptor implements ClientInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public EndpointLatencyInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                long start = System.nanoTime();
+                ClientCall<ReqT, RespT> call = this;
+                super.start(new SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        long elapsed = System.nanoTime() - start;
+                        TimerKey key = new TimerKey(method.getBareMethodName(),
+                            call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR), status.getCode());
+                        timers.computeIfAbsent(key, k -> Timer.builder("grpc.client.endpoint.latency")
+                            .description("Wallet-service call latency by backend")
+                            .tag("method", k.method())
+                            .tag("endpoint", endpoint(k.address()))
+                            .tag("status", k.code().name())
+                            .publishPercentileHistogram()
+                            .register(meterRegistry))
+                            .record(elapsed, TimeUnit.NANOSECONDS);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private record TimerKey(String method, SocketAddress address, Status.Code code) {}
+
+    private static String endpoint(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet) {
+            return inet.getAddress() != null
+                ? inet.getAddress().getHostAddress() + ":" + inet.getPort()
+                : inet.getHostString() + ":" + inet.getPort();
+        }
+        // no transport picked (e.g. failed before connecting)
+        return address == null ? "none" : address.toString();
+    }
+}
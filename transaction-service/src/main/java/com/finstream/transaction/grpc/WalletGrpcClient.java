@@ -1,18 +1,33 @@
 package com.finstream.transaction.grpc;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.finstream.common.grpc.BalanceCheckRequest;
-import com.finstream.common.grpc.BalanceCheckResponse;
+import com.finstream.common.grpc.BalanceRequest;
+import com.finstream.common.grpc.BalanceResponse;
+import com.finstream.common.grpc.ReleaseFundsRequest;
+import com.finstream.common.grpc.ReserveFundsRequest;
+import com.finstream.common.grpc.ReserveFundsResponse;
 import com.finstream.common.grpc.WalletServiceGrpc;
+import com.finstream.common.money.Money;
+
+import com.google.common.util.concurrent.ListenableFuture;
 
 import net.devh.boot.grpc.client.inject.GrpcClient;
 
+// the deprecated double amount fields are still written and read for wallet-service replicas on the previous version
+@SuppressWarnings("deprecation")
 @Service
 public class WalletGrpcClient {
 
@@ -21,29 +36,103 @@ public class WalletGrpcClient {
     @GrpcClient("walletService")
     private WalletServiceGrpc.WalletServiceBlockingStub walletServiceStub;
 
-    public boolean hasSufficientBalance(UUID userId, BigDecimal amount) {
+    @GrpcClient("walletService")
+    private WalletServiceGrpc.WalletServiceFutureStub walletServiceFutureStub;
+
+    // every call gets a deadline so one slow wallet-service pod can't stall transfers
+    @Value("${wallet.grpc.deadline-ms:2000}")
+    private long deadlineMs;
+
+    /**
+     * Debits the sender and places a hold in one call. The wallet-service's answer is
+     * authoritative: null means the money is already set aside for this transaction,
+     * anything else is the reason it was refused.
+     */
+    public String reserveFunds(UUID transactionId, UUID userId, Money amount) {
         try {
-            log.info("Checking balance for user {} with amount {} via gRPC", userId, amount);
-            if (walletServiceStub == null) {
-                log.error("walletServiceStub is NULL! gRPC client not injected properly");
-                throw new RuntimeException("gRPC client not initialized");
-            }
-            
-            BalanceCheckRequest request = BalanceCheckRequest.newBuilder()
+            log.info("Reserving {} for user {} (transaction {}) via gRPC", amount, userId, transactionId);
+            ReserveFundsRequest request = ReserveFundsRequest.newBuilder()
+                .setTransactionId(transactionId.toString())
                 .setUserId(userId.toString())
-                .setAmount(amount.doubleValue())
+                .setAmountMinor(amount.getMinorUnits())
+                // still read by wallet-service replicas on the previous version
+                .setAmount(amount.toBigDecimal().doubleValue())
                 .build();
 
-            log.info("Calling checkSufficientBalance on wallet service via gRPC");
-            BalanceCheckResponse response = walletServiceStub.checkSufficientBalance(request);
-            log.info("gRPC response received: hasSufficientBalance={}, currentBalance={}", 
-                response.getHasSufficientBalance(), response.getCurrentBalance());
-            return response.getHasSufficientBalance();
-            
+            ReserveFundsResponse response = walletServiceStub
+                .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .reserveFunds(request);
+            log.info("gRPC reserve response: reserved={}, reason={}", response.getReserved(), response.getReason());
+            if (response.getReserved()) {
+                return null;
+            }
+            // replicas on the previous version leave the reason empty
+            return response.getReason().isEmpty() ? "Insufficient balance" : response.getReason();
+
         } catch (Exception e) {
-            log.error("gRPC balance check failed for user {}: {}", userId, e.getMessage(), e);
-            // If gRPC fails, reject the transaction for safety
-            throw new RuntimeException("Failed to validate balance with wallet service", e);
+            log.error("gRPC reserve failed for transaction {}: {}", transactionId, e.getMessage(), e);
+            throw new RuntimeException("Failed to reserve funds with wallet service", e);
+        }
+    }
+
+    /**
+     * Best-effort release of a hold, retried once. Returns false if the hold was already
+     * captured or the wallet-service could not be reached.
+     */
+    public boolean releaseFunds(UUID transactionId) {
+        ReleaseFundsRequest request = ReleaseFundsRequest.newBuilder()
+            .setTransactionId(transactionId.toString())
+            .build();
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                return walletServiceStub
+                    .withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                    .releaseFunds(request)
+                    .getReleased();
+            } catch (Exception e) {
+                log.error("gRPC release failed for transaction {} (attempt {}): {}", transactionId, attempt, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks up balances for many users at once. All calls are issued before any
+     * response is awaited, so the cost is roughly one round trip instead of one per user.
+     * Users whose lookup failed are left out of the returned map.
+     */
+    public Map<UUID, Money> getBalances(Collection<UUID> userIds, long timeoutMs) {
+        Map<UUID, ListenableFuture<BalanceResponse>> pending = new HashMap<>(userIds.size() * 2);
+        for (UUID userId : userIds) {
+            BalanceRequest request = BalanceRequest.newBuilder()
+                .setUserId(userId.toString())
+                .build();
+            pending.put(userId, walletServiceFutureStub
+                .withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS)
+                .getBalance(request));
+        }
+
+        Map<UUID, Money> balances = new HashMap<>(userIds.size() * 2);
+        for (Map.Entry<UUID, ListenableFuture<BalanceResponse>> entry : pending.entrySet()) {
+            try {
+                balances.put(entry.getKey(), toMoney(entry.getValue().get()));
+            } catch (ExecutionException e) {
+                log.error("gRPC balance lookup failed for user {}: {}", entry.getKey(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        log.info("Fetched {} of {} balances via gRPC", balances.size(), userIds.size());
+        return balances;
+    }
+
+    // a wallet-service on the previous version only fills in the double; round it to the nearest cent
+    private static Money toMoney(BalanceResponse response) {
+        String currency = response.getCurrency().isEmpty() ? Money.USD : response.getCurrency();
+        if (response.hasBalanceMinor()) {
+            return Money.ofMinor(response.getBalanceMinor(), currency);
         }
+        return Money.of(BigDecimal.valueOf(response.getBalance()).setScale(2, RoundingMode.HALF_EVEN), currency);
     }
 }
@@ -0,0 +1,241 @@
+package com.finstream.transaction.kafka;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.common.events.TransactionEvent;
+import com.finstream.common.events.TransactionEvents;
+import com.finstream.common.tracing.KafkaTracing;
+import com.finstream.transaction.model.OutboxEvent;
+import com.finstream.transaction.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * Drains the transaction outbox to Kafka. Each batch is claimed in a short transaction
+ * (SKIP LOCKED, then {@code claimed_until} set {@code claim-ms} ahead), sent as pipelined
+ * async sends outside any transaction, and the acked rows are marked published in a
+ * second short one. Delivery is at-least-once: rows whose send failed or timed out are
+ * released and retried on the next poll, and rows left claimed by a relay that died are
+ * retried once the claim expires.
+ * <p>
+ * Events queued inside a trace are sent with a {@code traceparent} header. Their
+ * "transactions send" span runs from the outbox commit to the broker ack, so it shows
+ * the time spent waiting for the relay as well as the send.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String TOPIC = "transactions";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Propagator propagator;
+
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final Timer delayTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.claim-ms:30000}")
+    private long claimMs;
+
+    @Value("${outbox.relay.retention-hours:24}")
+    private long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaTemplate<String, TransactionEvent> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       Propagator propagator,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.propagator = propagator;
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Outbox events acked by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.relay.failed")
+                .description("Outbox events whose send failed and will be retried")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to claim, send and mark one outbox batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        // the Kafka-publish stage of a transfer, measured from its commit to the broker's ack
+        this.delayTimer = Timer.builder("outbox.relay.delay")
+                .description("Time from an outbox event's commit until Kafka acked it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("outbox.relay.lag", lagMillis, v -> v.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:100}")
+    public void relay() {
+        try {
+            // keep draining while batches come back full, bounded so one poll can't run forever
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                if (drainBatch() < batchSize) {
+                    break;
+                }
+            }
+            updateLag();
+        } catch (Exception e) {
+            log.error("Outbox relay poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:300000}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} published outbox events older than {}", deleted, cutoff);
+        }
+    }
+
+    // returns the number of events acked in this batch
+    private int drainBatch() {
+        long start = System.nanoTime();
+        // claim and mark in two short transactions; no connection or row lock is held while waiting for acks
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> claimNextBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, TransactionEvent>>> futures = new ArrayList<>(batch.size());
+        Span[] spans = new Span[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            // keyed by sender so every event for a wallet lands on the same partition, in order
+            ProducerRecord<String, TransactionEvent> record =
+                new ProducerRecord<>(TOPIC, event.getSenderId().toString(), toEvent(event));
+            spans[i] = startSend(event);
+            if (spans[i] != null) {
+                KafkaTracing.inject(propagator, spans[i].context(), record.headers());
+            }
+            futures.add(kafkaTemplate.send(record));
+        }
+        awaitAll(futures);
+
+        List<Long> ackedIds = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<?> future = futures.get(i);
+            boolean ok = future.isDone() && !future.isCompletedExceptionally();
+            if (ok) {
+                ackedIds.add(batch.get(i).getId());
+                delayTimer.record(Duration.between(batch.get(i).getCreatedAt(), now));
+            } else {
+                failedIds.add(batch.get(i).getId());
+            }
+            if (spans[i] != null) {
+                spans[i].tag("outbox.acked", ok).end();
+            }
+        }
+        // failed rows are released so the next poll retries them instead of waiting out the claim
+        transactionTemplate.execute(status -> {
+            if (!ackedIds.isEmpty()) {
+                outboxEventRepository.markPublished(ackedIds, now);
+            }
+            if (!failedIds.isEmpty()) {
+                outboxEventRepository.releaseClaims(failedIds);
+            }
+            return null;
+        });
+
+        publishedCounter.increment(ackedIds.size());
+        failedCounter.increment(failedIds.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return ackedIds.size();
+    }
+
+    private List<OutboxEvent> claimNextBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize, now);
+        if (!batch.isEmpty()) {
+            List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+            outboxEventRepository.claim(ids, now.plus(Duration.ofMillis(claimMs)));
+        }
+        return batch;
+    }
+
+    private void awaitAll(List<CompletableFuture<SendResult<String, TransactionEvent>>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // individual futures are checked by the caller; failed ones stay pending
+            log.warn("Outbox batch partially failed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void updateLag() {
+        long lag = outboxEventRepository.findFirstByPublishedAtIsNullOrderByIdAsc()
+                .map(e -> Duration.between(e.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L);
+        lagMillis.set(Math.max(lag, 0));
+    }
+
+    // a retried event gets a new send span each attempt, all under the same parent
+    private Span startSend(OutboxEvent event) {
+        Span.Builder builder = KafkaTracing.childOf(propagator, event.getTraceparent());
+        if (builder == null) {
+            return null;
+        }
+        long committedMicros = event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() * 1_000L;
+        return builder.name(TOPIC + " send")
+            .kind(Span.Kind.PRODUCER)
+            .tag("messaging.destination", TOPIC)
+            .tag("outbox.id", event.getId())
+            .startTimestamp(committedMicros, TimeUnit.MICROSECONDS)
+            .start();
+    }
+
+    private static TransactionEvent toEvent(OutboxEvent event) {
+        return TransactionEvents.of(event.getTransactionId(), event.getSenderId(), event.getReceiverId(), event.getAmount());
+    }
+}
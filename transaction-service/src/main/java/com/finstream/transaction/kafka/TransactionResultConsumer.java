@@ -0,0 +1,50 @@
+package com.finstream.transaction.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.finstream.common.tracing.KafkaTracing;
+import com.finstream.transaction.service.TransferStatusService;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+@Component
+public class TransactionResultConsumer {
+
+    private final TransferStatusService transferStatusService;
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public TransactionResultConsumer(TransferStatusService transferStatusService, Tracer tracer, Propagator propagator) {
+        this.transferStatusService = transferStatusService;
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    @KafkaListener(topics = "transaction-results", groupId = "transaction-group")
+    public void handleResult(ConsumerRecord<String, TransactionResultEvent> record) {
+        TransactionResultEvent event = record.value();
+        if (event == null || event.getTransactionId() == null) {
+            return;
+        }
+        // results of traced transfers carry the wallet-service's traceparent
+        Span span = KafkaTracing.startProcessing(propagator, record, KafkaTracing.nowMicros());
+        if (span == null) {
+            transferStatusService.finalizeTransfer(event.getTransactionId(), event.isApplied(), event.getReason());
+            return;
+        }
+        Tracer.SpanInScope scope = tracer.withSpan(span);
+        try {
+            transferStatusService.finalizeTransfer(event.getTransactionId(), event.isApplied(), event.getReason());
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            scope.close();
+            span.tag("transfer.applied", event.isApplied()).end();
+        }
+    }
+}
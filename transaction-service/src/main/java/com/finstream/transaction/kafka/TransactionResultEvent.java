@@ -0,0 +1,24 @@
+package com.finstream.transaction.kafka;
+
+import java.util.UUID;
+
+/**
+ * Published by the wallet-service on {@code transaction-results} once it has applied
+ * or rejected a transfer.
+ */
+public class TransactionResultEvent {
+    private UUID transactionId;
+    private boolean applied;
+    private String reason;
+
+    public TransactionResultEvent() {}
+
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+
+    public boolean isApplied() { return applied; }
+    public void setApplied(boolean applied) { this.applied = applied; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
@@ -0,0 +1,38 @@
+package com.finstream.transaction.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+
+/**
+ * Running totals of completed transfers per user, month and direction.
+ * Maintained incrementally by RollupService in the same DB transaction as the transfer.
+ */
+@Entity
+@Table(name = "transaction_monthly_rollups")
+public class MonthlyRollup {
+    @EmbeddedId
+    private MonthlyRollupId id;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long txCount;
+
+    public MonthlyRollup() {}
+
+    public MonthlyRollup(MonthlyRollupId id) {
+        this.id = id;
+    }
+
+    public MonthlyRollupId getId() { return id; }
+    public void setId(MonthlyRollupId id) { this.id = id; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public long getTxCount() { return txCount; }
+    public void setTxCount(long txCount) { this.txCount = txCount; }
+}
@@ -0,0 +1,52 @@
+package com.finstream.transaction.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+@Embeddable
+public class MonthlyRollupId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private UUID userId;
+
+    // first day of the month
+    private LocalDate month;
+
+    @Enumerated(EnumType.STRING)
+    private RollupDirection direction;
+
+    public MonthlyRollupId() {}
+
+    public MonthlyRollupId(UUID userId, LocalDate month, RollupDirection direction) {
+        this.userId = userId;
+        this.month = month;
+        this.direction = direction;
+    }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public LocalDate getMonth() { return month; }
+    public void setMonth(LocalDate month) { this.month = month; }
+    public RollupDirection getDirection() { return direction; }
+    public void setDirection(RollupDirection direction) { this.direction = direction; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MonthlyRollupId other)) return false;
+        return Objects.equals(userId, other.userId)
+            && Objects.equals(month, other.month)
+            && direction == other.direction;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, month, direction);
+    }
+}
@@ -0,0 +1,5 @@
+package com.finstream.transaction.model;
+
+public enum RollupDirection {
+    SENT, RECEIVED
+}
@@ -10,11 +10,15 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_sender_ts_id", columnList = "senderId, timestamp, id"),
+    @Index(name = "idx_transactions_receiver_ts_id", columnList = "receiverId, timestamp, id")
+})
 public class Transaction {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
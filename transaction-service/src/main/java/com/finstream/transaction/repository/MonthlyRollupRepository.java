@@ -0,0 +1,45 @@
+package com.finstream.transaction.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.finstream.transaction.model.MonthlyRollup;
+import com.finstream.transaction.model.MonthlyRollupId;
+
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, MonthlyRollupId> {
+
+    @Modifying
+    @Query(value = "INSERT INTO transaction_monthly_rollups (user_id, month, direction, total_amount, tx_count) "
+            + "VALUES (:userId, :month, :direction, :amount, :count) "
+            + "ON CONFLICT (user_id, month, direction) DO UPDATE SET "
+            + "total_amount = transaction_monthly_rollups.total_amount + EXCLUDED.total_amount, "
+            + "tx_count = transaction_monthly_rollups.tx_count + EXCLUDED.tx_count",
+           nativeQuery = true)
+    void increment(UUID userId, LocalDate month, String direction, BigDecimal amount, long count);
+
+    @Query("SELECT r FROM MonthlyRollup r WHERE r.id.userId = :userId AND r.id.month >= :fromMonth ORDER BY r.id.month DESC")
+    List<MonthlyRollup> findSince(UUID userId, LocalDate fromMonth);
+
+    // rows of [direction, total amount, count]
+    @Query("SELECT r.id.direction, SUM(r.totalAmount), SUM(r.txCount) FROM MonthlyRollup r "
+            + "WHERE r.id.userId = :userId GROUP BY r.id.direction")
+    List<Object[]> sumByDirection(UUID userId);
+
+    // one-off rebuild from existing history; only meant to run against an empty rollup table
+    @Modifying
+    @Query(value = "INSERT INTO transaction_monthly_rollups (user_id, month, direction, total_amount, tx_count) "
+            + "SELECT sender_id, CAST(date_trunc('month', \"timestamp\") AS date), 'SENT', SUM(amount), COUNT(*) "
+            + "FROM transactions WHERE status = 'COMPLETED' GROUP BY 1, 2 "
+            + "UNION ALL "
+            + "SELECT receiver_id, CAST(date_trunc('month', \"timestamp\") AS date), 'RECEIVED', SUM(amount), COUNT(*) "
+            + "FROM transactions WHERE status = 'COMPLETED' GROUP BY 1, 2 "
+            + "ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int backfillFromTransactions();
+}
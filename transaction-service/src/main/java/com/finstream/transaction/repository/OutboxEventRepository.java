@@ -0,0 +1,40 @@
+package com.finstream.transaction.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.finstream.transaction.model.OutboxEvent;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // SKIP LOCKED keeps concurrent claims apart; claimed_until keeps rows being sent apart once the claim commits
+    @Query(value = "SELECT * FROM transaction_outbox WHERE published_at IS NULL"
+                 + " AND (claimed_until IS NULL OR claimed_until < :now)"
+                 + " ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(int limit, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.claimedUntil = :claimedUntil WHERE o.id IN :ids")
+    int claim(Collection<Long> ids, LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.publishedAt = :publishedAt WHERE o.id IN :ids")
+    int markPublished(Collection<Long> ids, LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.claimedUntil = null WHERE o.id IN :ids")
+    int releaseClaims(Collection<Long> ids);
+
+    Optional<OutboxEvent> findFirstByPublishedAtIsNullOrderByIdAsc();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent o WHERE o.publishedAt < :cutoff")
+    int deletePublishedBefore(LocalDateTime cutoff);
+}
@@ -1,10 +1,32 @@
 package com.finstream.transaction.repository;
 
 import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.model.TransactionStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-    List<Transaction> findBySenderIdOrReceiverId(UUID senderId, UUID receiverId);
-}
\ No newline at end of file
+
+    // Keyset scans, newest first: rows strictly before the (beforeTs, beforeId) cursor, within [fromTs, toTs].
+    // The range is its own predicate so a cursor sitting exactly on toTs still moves on.
+    // Each side is served by its own (party, timestamp, id) index instead of an OR across both columns.
+    @Query(value = "SELECT * FROM transactions WHERE sender_id = :userId AND \"timestamp\" >= :fromTs AND \"timestamp\" <= :toTs "
+            + "AND (\"timestamp\", id) < (:beforeTs, :beforeId) ORDER BY \"timestamp\" DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Transaction> findSentBefore(UUID userId, LocalDateTime fromTs, LocalDateTime toTs, LocalDateTime beforeTs, UUID beforeId, int limit);
+
+    @Query(value = "SELECT * FROM transactions WHERE receiver_id = :userId AND \"timestamp\" >= :fromTs AND \"timestamp\" <= :toTs "
+            + "AND (\"timestamp\", id) < (:beforeTs, :beforeId) ORDER BY \"timestamp\" DESC, id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Transaction> findReceivedBefore(UUID userId, LocalDateTime fromTs, LocalDateTime toTs, LocalDateTime beforeTs, UUID beforeId, int limit);
+
+    // only a PENDING row moves, so redelivered or late results are no-ops
+    @Modifying
+    @Query("UPDATE Transaction t SET t.status = :status WHERE t.id = :id "
+            + "AND t.status = com.finstream.transaction.model.TransactionStatus.PENDING")
+    int finalizePending(UUID id, TransactionStatus status);
+}
@@ -0,0 +1,173 @@
+package com.finstream.transaction.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.common.money.Money;
+import com.finstream.transaction.dto.BatchTransferResult;
+import com.finstream.transaction.dto.TransactionRequest;
+import com.finstream.transaction.grpc.WalletGrpcClient;
+import com.finstream.transaction.model.OutboxEvent;
+import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.model.TransactionStatus;
+import com.finstream.transaction.repository.OutboxEventRepository;
+import com.finstream.transaction.repository.TransactionRepository;
+
+/**
+ * Processes many transfers in one call (payroll and settlement files).
+ * Balances are fetched once per distinct sender with pipelined gRPC calls,
+ * each sender's balance is allocated to its items in request order, and all
+ * rows are written in a single JDBC-batched DB transaction.
+ * <p>
+ * That allocation only screens out items that plainly can't be paid; the
+ * snapshot is stale as soon as it is read. Items that pass are written as
+ * PENDING with no hold, and the wallet-service debits them under its own lock
+ * when it applies the event, rejecting any the sender can no longer cover.
+ * {@link TransferStatusService} then moves them to COMPLETED (and into the
+ * rollups) or FAILED, as it does for async single transfers.
+ */
+@Service
+public class BatchTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchTransferService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final WalletGrpcClient walletGrpcClient;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseBulkhead databaseBulkhead;
+
+    @Value("${transfer.batch.max-items:5000}")
+    private int maxItems;
+
+    @Value("${transfer.batch.balance-timeout-ms:5000}")
+    private long balanceTimeoutMs;
+
+    public BatchTransferService(TransactionRepository transactionRepository,
+                                OutboxEventRepository outboxEventRepository,
+                                WalletGrpcClient walletGrpcClient,
+                                TransactionTemplate transactionTemplate,
+                                DatabaseBulkhead databaseBulkhead) {
+        this.transactionRepository = transactionRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.walletGrpcClient = walletGrpcClient;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseBulkhead = databaseBulkhead;
+    }
+
+    public List<BatchTransferResult> processBatch(List<TransactionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer is required");
+        }
+        if (requests.size() > maxItems) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxItems + " transfers");
+        }
+
+        BatchTransferResult[] results = new BatchTransferResult[requests.size()];
+
+        // Validate each item and group the valid ones by sender, keeping request order
+        Map<UUID, List<Integer>> indexesBySender = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = new BatchTransferResult(i, null, TransactionStatus.FAILED, error);
+            } else {
+                indexesBySender.computeIfAbsent(request.getSenderId(), k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        // One balance lookup per sender, all in flight at once
+        Map<UUID, Money> balances = indexesBySender.isEmpty()
+            ? Map.of()
+            : walletGrpcClient.getBalances(indexesBySender.keySet(), balanceTimeoutMs);
+
+        List<Transaction> toSave = new ArrayList<>(requests.size());
+        List<Integer> savedIndexes = new ArrayList<>(requests.size());
+        for (Map.Entry<UUID, List<Integer>> entry : indexesBySender.entrySet()) {
+            Money balance = balances.get(entry.getKey());
+            if (balance == null) {
+                for (int index : entry.getValue()) {
+                    results[index] = new BatchTransferResult(index, null, TransactionStatus.FAILED,
+                        "Failed to validate balance with wallet service");
+                }
+                continue;
+            }
+
+            // plain long arithmetic in minor units; amounts were checked to be whole cents that fit in a long
+            long available = balance.getMinorUnits();
+            for (int index : entry.getValue()) {
+                TransactionRequest request = requests.get(index);
+                long amount = Money.of(request.getAmount(), balance.getCurrency()).getMinorUnits();
+                TransactionStatus status;
+                if (amount <= available) {
+                    available -= amount;
+                    status = TransactionStatus.PENDING;
+                } else {
+                    status = TransactionStatus.FAILED;
+                }
+                toSave.add(newTransaction(request, status));
+                savedIndexes.add(index);
+            }
+        }
+
+        if (!toSave.isEmpty()) {
+            databaseBulkhead.call(() -> transactionTemplate.execute(status -> {
+                transactionRepository.saveAll(toSave);
+                List<OutboxEvent> events = new ArrayList<>(toSave.size());
+                for (Transaction tx : toSave) {
+                    if (tx.getStatus() == TransactionStatus.PENDING) {
+                        events.add(new OutboxEvent(tx.getId(), tx.getSenderId(), tx.getReceiverId(), tx.getAmount()));
+                    }
+                }
+                outboxEventRepository.saveAll(events);
+                return null;
+            }));
+        }
+
+        for (int k = 0; k < toSave.size(); k++) {
+            Transaction tx = toSave.get(k);
+            int index = savedIndexes.get(k);
+            String error = tx.getStatus() == TransactionStatus.FAILED ? "Insufficient balance" : null;
+            results[index] = new BatchTransferResult(index, tx.getId(), tx.getStatus(), error);
+        }
+
+        log.info("Batch of {} transfers processed: {} senders, {} rows written",
+            requests.size(), indexesBySender.size(), toSave.size());
+        return Arrays.asList(results);
+    }
+
+    // same rules as TransactionOrchestrator.process, reported per item instead of thrown
+    private static String validate(TransactionRequest request) {
+        if (request == null || request.getSenderId() == null || request.getReceiverId() == null
+                || request.getAmount() == null) {
+            return "Sender ID, Receiver ID, and Amount are required";
+        }
+        if (request.getSenderId().equals(request.getReceiverId())) {
+            return "Cannot transfer to yourself";
+        }
+        if (request.getAmount().signum() <= 0) {
+            return "Amount must be positive";
+        }
+        return TransactionOrchestrator.amountError(request.getAmount());
+    }
+
+    private static Transaction newTransaction(TransactionRequest request, TransactionStatus status) {
+        Transaction tx = new Transaction();
+        tx.setSenderId(request.getSenderId());
+        tx.setReceiverId(request.getReceiverId());
+        tx.setAmount(request.getAmount());
+        tx.setStatus(status);
+        return tx;
+    }
+}
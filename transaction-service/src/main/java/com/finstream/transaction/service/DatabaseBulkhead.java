@@ -0,0 +1,92 @@
+package com.finstream.transaction.service;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Caps how many callers can be doing database work at once. Sized to the Hikari pool,
+ * so with virtual threads thousands of requests queue here (cheaply, with a short
+ * timeout) rather than all blocking in Hikari's getConnection for 30s.
+ * Calls must not be nested: a permit holder asking for another permit can starve.
+ * <p>
+ * Request handlers use {@link #call}, so a saturated database becomes a quick 503 the
+ * client can retry. Work nobody will retry for us (applying a Kafka result, compensating
+ * a failed transfer) uses {@link #callWhenFree}, which waits its turn instead.
+ */
+@Component
+public class DatabaseBulkhead {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final Counter rejectedCounter;
+    private final Timer waitTimer;
+
+    public DatabaseBulkhead(@Value("${execution.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+                            @Value("${execution.db.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                            MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.rejectedCounter = Counter.builder("db.bulkhead.rejected")
+                .description("Requests rejected because no database slot freed up in time")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent waiting for a database slot, including rejected waits")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("db.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Free database slots")
+                .register(meterRegistry);
+        Gauge.builder("db.bulkhead.queued", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a database slot")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Supplier<T> work) {
+        boolean acquired;
+        long start = System.nanoTime();
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for a database slot");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejectedCounter.increment();
+            throw new DatabaseBusyException("Database is busy, please retry");
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Like {@link #call}, but waits as long as it takes for a slot rather than giving up. */
+    public <T> T callWhenFree(Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for a database slot");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
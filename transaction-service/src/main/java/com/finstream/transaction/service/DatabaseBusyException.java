@@ -0,0 +1,13 @@
+package com.finstream.transaction.service;
+
+/**
+ * Thrown when no database slot frees up within the bulkhead timeout.
+ * Controllers map it to 503 so callers back off instead of piling onto the pool.
+ */
+public class DatabaseBusyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
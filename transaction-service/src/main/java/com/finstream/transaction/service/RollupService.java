@@ -0,0 +1,136 @@
+package com.finstream.transaction.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finstream.transaction.dto.TransactionSummary;
+import com.finstream.transaction.model.MonthlyRollup;
+import com.finstream.transaction.model.MonthlyRollupId;
+import com.finstream.transaction.model.RollupDirection;
+import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.repository.MonthlyRollupRepository;
+
+/**
+ * Maintains per-user monthly sent/received rollups so dashboards read a handful
+ * of rows instead of the whole transaction history.
+ */
+@Service
+public class RollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupService.class);
+
+    // rows are upserted in this order everywhere so concurrent writers can't deadlock
+    private static final Comparator<MonthlyRollupId> LOCK_ORDER = Comparator
+        .comparing(MonthlyRollupId::getUserId)
+        .thenComparing(MonthlyRollupId::getMonth)
+        .thenComparing(MonthlyRollupId::getDirection);
+
+    private final MonthlyRollupRepository rollupRepository;
+    private final DatabaseBulkhead databaseBulkhead;
+
+    @Value("${rollup.summary.default-months:12}")
+    private int defaultMonths;
+
+    @Value("${rollup.summary.max-months:60}")
+    private int maxMonths;
+
+    @Value("${rollup.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    public RollupService(MonthlyRollupRepository rollupRepository, DatabaseBulkhead databaseBulkhead) {
+        this.rollupRepository = rollupRepository;
+        this.databaseBulkhead = databaseBulkhead;
+    }
+
+    /**
+     * Adds completed transfers to the rollups. Must run inside the transaction that
+     * writes the transfers, so the rollups commit or roll back with them.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Collection<Transaction> completed) {
+        Map<MonthlyRollupId, MonthlyRollup> deltas = new TreeMap<>(LOCK_ORDER);
+        for (Transaction tx : completed) {
+            LocalDate month = tx.getTimestamp().toLocalDate().withDayOfMonth(1);
+            accumulate(deltas, new MonthlyRollupId(tx.getSenderId(), month, RollupDirection.SENT), tx.getAmount());
+            accumulate(deltas, new MonthlyRollupId(tx.getReceiverId(), month, RollupDirection.RECEIVED), tx.getAmount());
+        }
+        for (MonthlyRollup delta : deltas.values()) {
+            MonthlyRollupId id = delta.getId();
+            rollupRepository.increment(id.getUserId(), id.getMonth(), id.getDirection().name(),
+                delta.getTotalAmount(), delta.getTxCount());
+        }
+    }
+
+    public TransactionSummary getSummary(UUID userId, Integer months) {
+        return databaseBulkhead.call(() -> buildSummary(userId, months));
+    }
+
+    private TransactionSummary buildSummary(UUID userId, Integer months) {
+        int window = months == null ? defaultMonths : Math.min(Math.max(months, 1), maxMonths);
+        LocalDate fromMonth = YearMonth.now().minusMonths(window - 1L).atDay(1);
+
+        TransactionSummary summary = new TransactionSummary();
+        summary.setUserId(userId);
+
+        for (Object[] row : rollupRepository.sumByDirection(userId)) {
+            RollupDirection direction = (RollupDirection) row[0];
+            BigDecimal total = (BigDecimal) row[1];
+            long count = ((Number) row[2]).longValue();
+            if (direction == RollupDirection.SENT) {
+                summary.setTotalSent(total);
+                summary.setSentCount(count);
+            } else {
+                summary.setTotalReceived(total);
+                summary.setReceivedCount(count);
+            }
+        }
+
+        Map<String, TransactionSummary.MonthSummary> byMonth = new LinkedHashMap<>();
+        for (MonthlyRollup rollup : rollupRepository.findSince(userId, fromMonth)) {
+            String key = YearMonth.from(rollup.getId().getMonth()).toString();
+            TransactionSummary.MonthSummary month = byMonth.computeIfAbsent(key, TransactionSummary.MonthSummary::new);
+            if (rollup.getId().getDirection() == RollupDirection.SENT) {
+                month.setSent(rollup.getTotalAmount());
+                month.setSentCount(rollup.getTxCount());
+            } else {
+                month.setReceived(rollup.getTotalAmount());
+                month.setReceivedCount(rollup.getTxCount());
+            }
+        }
+        summary.setMonths(List.copyOf(byMonth.values()));
+        return summary;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup || rollupRepository.count() > 0) {
+            return;
+        }
+        int rows = rollupRepository.backfillFromTransactions();
+        log.info("Backfilled {} monthly rollup rows from transaction history", rows);
+    }
+
+    private static void accumulate(Map<MonthlyRollupId, MonthlyRollup> deltas, MonthlyRollupId id, BigDecimal amount) {
+        MonthlyRollup delta = deltas.computeIfAbsent(id, MonthlyRollup::new);
+        delta.setTotalAmount(delta.getTotalAmount().add(amount));
+        delta.setTxCount(delta.getTxCount() + 1);
+    }
+}
@@ -1,42 +1,128 @@
 package com.finstream.transaction.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.finstream.common.money.Money;
+import com.finstream.common.tracing.KafkaTracing;
+import com.finstream.transaction.dto.HistoryCursor;
+import com.finstream.transaction.dto.HistoryPage;
 import com.finstream.transaction.dto.TransactionRequest;
 import com.finstream.transaction.grpc.WalletGrpcClient;
-import com.finstream.transaction.kafka.TransactionEvent;
+import com.finstream.transaction.model.OutboxEvent;
 import com.finstream.transaction.model.Transaction;
 import com.finstream.transaction.model.TransactionStatus;
+import com.finstream.transaction.repository.OutboxEventRepository;
 import com.finstream.transaction.repository.TransactionRepository;
+import com.finstream.transaction.service.TransferStageTimers.Outcome;
+import com.finstream.transaction.service.TransferStageTimers.Stage;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
 
 @Service
 public class TransactionOrchestrator {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionOrchestrator.class);
 
+    // open-ended bounds for the keyset queries when no time range or cursor is given
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final UUID MAX_UUID = new UUID(-1L, -1L);
+    private static final int MARK_FAILED_ATTEMPTS = 3;
+
     private final TransactionRepository transactionRepository;
-    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate;
+    private final OutboxEventRepository outboxEventRepository;
     private final WalletGrpcClient walletGrpcClient;
+    private final RollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final TransferStageTimers stageTimers;
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    @Value("${history.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${history.page.max-size:100}")
+    private int maxPageSize;
 
     public TransactionOrchestrator(TransactionRepository transactionRepository,
-                                   KafkaTemplate<String, TransactionEvent> kafkaTemplate,
-                                   WalletGrpcClient walletGrpcClient) {
+                                   OutboxEventRepository outboxEventRepository,
+                                   WalletGrpcClient walletGrpcClient,
+                                   RollupService rollupService,
+                                   TransactionTemplate transactionTemplate,
+                                   DatabaseBulkhead databaseBulkhead,
+                                   TransferStageTimers stageTimers,
+                                   Tracer tracer,
+                                   Propagator propagator) {
         this.transactionRepository = transactionRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxEventRepository = outboxEventRepository;
         this.walletGrpcClient = walletGrpcClient;
+        this.rollupService = rollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseBulkhead = databaseBulkhead;
+        this.stageTimers = stageTimers;
+        this.tracer = tracer;
+        this.propagator = propagator;
         log.info("TransactionOrchestrator initialized with WalletGrpcClient: {}", walletGrpcClient != null);
     }
 
-    @Transactional
+    /**
+     * Synchronous transfer. The row is written as PENDING first so its id can key the
+     * wallet-service hold; ReserveFunds then debits the sender atomically, and only after
+     * that is the transaction marked COMPLETED. No DB connection is held across the RPC.
+     */
     public Transaction process(TransactionRequest request) {
         log.info("Processing transaction: sender={}, receiver={}, amount={}", 
             request.getSenderId(), request.getReceiverId(), request.getAmount());
-            
-        // Validate inputs
+        Transaction tx = reserveAndCommit(request, TransactionStatus.COMPLETED);
+        log.info("Transaction completed and event queued for publishing: {}", tx.getId());
+        return tx;
+    }
+
+    /**
+     * Async variant of {@link #process}: reserves the funds and returns while the transfer
+     * is still PENDING. It becomes COMPLETED or FAILED once the wallet-service reports
+     * that it captured the hold (see {@link TransferStatusService}).
+     */
+    public Transaction submit(TransactionRequest request) {
+        log.info("Submitting async transaction: sender={}, receiver={}, amount={}",
+            request.getSenderId(), request.getReceiverId(), request.getAmount());
+        Transaction tx = reserveAndCommit(request, TransactionStatus.PENDING);
+        log.info("Transaction accepted as pending: {}", tx.getId());
+        return tx;
+    }
+
+    private Transaction reserveAndCommit(TransactionRequest request, TransactionStatus status) {
+        long start = System.nanoTime();
+        try {
+            stageTimers.record(Stage.VALIDATE, () -> validate(request));
+            Transaction tx = stageTimers.record(Stage.PERSIST, () ->
+                databaseBulkhead.call(() -> persist(request, TransactionStatus.PENDING)));
+            stageTimers.record(Stage.RESERVE, () -> reserveFunds(tx));
+            stageTimers.record(Stage.COMMIT, () -> commitReserved(tx, status));
+            stageTimers.recordTotal(Outcome.COMPLETED, start);
+            return tx;
+        } catch (IllegalArgumentException e) {
+            stageTimers.recordTotal(Outcome.REJECTED, start);
+            throw e;
+        } catch (RuntimeException e) {
+            stageTimers.recordTotal(Outcome.FAILED, start);
+            throw e;
+        }
+    }
+
+    private static void validate(TransactionRequest request) {
         if (request.getSenderId() == null || request.getReceiverId() == null || request.getAmount() == null) {
             throw new IllegalArgumentException("Sender ID, Receiver ID, and Amount are required");
         }
@@ -49,25 +135,92 @@ public class TransactionOrchestrator {
             throw new IllegalArgumentException("Amount must be positive");
         }
 
-        log.info("Starting gRPC balance validation for sender: {}", request.getSenderId());
-        // gRPC validation: Check if sender has sufficient balance
-        boolean hasSufficientBalance = walletGrpcClient.hasSufficientBalance(
-            request.getSenderId(), 
-            request.getAmount()
-        );
-        log.info("gRPC balance check result: {}", hasSufficientBalance);
-        
-        if (!hasSufficientBalance) {
-            log.warn("Insufficient balance for sender: {}", request.getSenderId());
-            Transaction failedTx = persist(request, TransactionStatus.FAILED);
-            throw new IllegalArgumentException("Insufficient balance");
+        String amountError = amountError(request.getAmount());
+        if (amountError != null) {
+            throw new IllegalArgumentException(amountError);
+        }
+    }
+
+    // the wallet-service holds amounts as a long of whole minor units; numeric(38,2) would silently round the rest
+    static String amountError(BigDecimal amount) {
+        if (amount.stripTrailingZeros().scale() > Money.scale(Money.USD)) {
+            return "Amount must be in whole cents";
+        }
+        try {
+            Money.of(amount, Money.USD);
+            return null;
+        } catch (ArithmeticException e) {
+            return "Amount is too large";
+        }
+    }
+
+    private void reserveFunds(Transaction tx) {
+        String refusal;
+        try {
+            refusal = walletGrpcClient.reserveFunds(tx.getId(), tx.getSenderId(), Money.of(tx.getAmount(), Money.USD));
+        } catch (RuntimeException e) {
+            // the outcome is unknown, so release in case the hold did land
+            walletGrpcClient.releaseFunds(tx.getId());
+            markFailed(tx);
+            throw e;
+        }
+        if (refusal != null) {
+            log.warn("Reservation refused for sender {}: {}", tx.getSenderId(), refusal);
+            markFailed(tx);
+            throw new IllegalArgumentException(refusal);
+        }
+    }
+
+    // queues the event (and, once COMPLETED, the rollup) for a reserved transfer;
+    // if that write fails the hold is handed back
+    private void commitReserved(Transaction tx, TransactionStatus status) {
+        try {
+            databaseBulkhead.call(() -> transactionTemplate.execute(s -> {
+                if (status != TransactionStatus.PENDING) {
+                    transactionRepository.finalizePending(tx.getId(), status);
+                    tx.setStatus(status);
+                    rollupService.record(List.of(tx));
+                }
+                // outbox row commits atomically with the status; OutboxRelay publishes it to Kafka
+                OutboxEvent event = new OutboxEvent(tx.getId(), tx.getSenderId(), tx.getReceiverId(), tx.getAmount());
+                event.setTraceparent(KafkaTracing.currentTraceparent(tracer, propagator));
+                outboxEventRepository.save(event);
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            tx.setStatus(TransactionStatus.PENDING);
+            walletGrpcClient.releaseFunds(tx.getId());
+            markFailed(tx);
+            throw e;
+        }
+    }
+
+    // compensation: waits for a database slot rather than giving up like a request would,
+    // and tries again on a failed write, since nothing else moves the row out of PENDING
+    private void markFailed(Transaction tx) {
+        for (int attempt = 1; attempt <= MARK_FAILED_ATTEMPTS; attempt++) {
+            try {
+                databaseBulkhead.callWhenFree(() -> transactionTemplate.execute(s ->
+                    transactionRepository.finalizePending(tx.getId(), TransactionStatus.FAILED)));
+                tx.setStatus(TransactionStatus.FAILED);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Could not mark transaction {} as failed (attempt {}): {}", tx.getId(), attempt, e.getMessage());
+            }
+            if (attempt < MARK_FAILED_ATTEMPTS && !pause(attempt * 100L)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        
-        log.info("Balance validated successfully, persisting transaction");
-        Transaction tx = persist(request, TransactionStatus.COMPLETED);
-        kafkaTemplate.send("transactions", new TransactionEvent(request.getSenderId(), request.getReceiverId(), request.getAmount()));
-        log.info("Transaction completed and event published: {}", tx.getId());
-        return tx;
     }
 
     private Transaction persist(TransactionRequest request, TransactionStatus status) {
@@ -79,7 +232,53 @@ public class TransactionOrchestrator {
         return transactionRepository.save(tx);
     }
 
-    public java.util.List<com.finstream.transaction.model.Transaction> getHistory(java.util.UUID userId) {
-        return transactionRepository.findBySenderIdOrReceiverId(userId, userId);
+    public HistoryPage getHistoryPage(UUID userId, Integer limit, String cursor, LocalDateTime from, LocalDateTime to) {
+        int pageSize = limit == null ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
+        LocalDateTime fromTs = from != null ? from : MIN_TIMESTAMP;
+        LocalDateTime toTs = to != null ? to : MAX_TIMESTAMP;
+        // the cursor always applies; the time range is a separate bound, not folded into it
+        HistoryCursor position = cursor != null && !cursor.isBlank() ? HistoryCursor.decode(cursor) : null;
+        LocalDateTime beforeTs = position != null ? position.getTimestamp() : MAX_TIMESTAMP;
+        UUID beforeId = position != null ? position.getId() : MAX_UUID;
+
+        // one extra row per side tells us whether another page exists
+        int fetch = pageSize + 1;
+        List<Transaction> merged = databaseBulkhead.call(() -> mergeNewestFirst(
+            transactionRepository.findSentBefore(userId, fromTs, toTs, beforeTs, beforeId, fetch),
+            transactionRepository.findReceivedBefore(userId, fromTs, toTs, beforeTs, beforeId, fetch),
+            fetch));
+
+        boolean hasMore = merged.size() > pageSize;
+        List<Transaction> items = hasMore ? merged.subList(0, pageSize) : merged;
+        String nextCursor = hasMore ? HistoryCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new HistoryPage(new ArrayList<>(items), nextCursor, hasMore);
+    }
+
+    // merges two lists already sorted by (timestamp, id) descending
+    private static List<Transaction> mergeNewestFirst(List<Transaction> sent, List<Transaction> received, int limit) {
+        List<Transaction> merged = new ArrayList<>(Math.min(limit, sent.size() + received.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < sent.size() || j < received.size())) {
+            if (j >= received.size() || (i < sent.size() && isNewer(sent.get(i), received.get(j)))) {
+                merged.add(sent.get(i++));
+            } else {
+                merged.add(received.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static boolean isNewer(Transaction a, Transaction b) {
+        int byTime = a.getTimestamp().compareTo(b.getTimestamp());
+        if (byTime != 0) {
+            return byTime > 0;
+        }
+        // Postgres orders uuids as unsigned bytes; UUID.compareTo is signed, so it can't be used for ties
+        int byHigh = Long.compareUnsigned(a.getId().getMostSignificantBits(), b.getId().getMostSignificantBits());
+        if (byHigh != 0) {
+            return byHigh > 0;
+        }
+        return Long.compareUnsigned(a.getId().getLeastSignificantBits(), b.getId().getLeastSignificantBits()) > 0;
     }
 }
@@ -0,0 +1,92 @@
+package com.finstream.transaction.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+/**
+ * Per-stage latency of a single transfer ({@code transfer.stage}) plus the whole call
+ * ({@code transfer.process}), as percentile histograms. Every timer is registered up
+ * front, so recording is a map lookup and a clock read, with no tag building per call.
+ * The Kafka publish happens later in {@code OutboxRelay}; its share is
+ * {@code outbox.relay.delay}. Inside a trace each stage is also a child span
+ * ({@code transfer.persist} etc.).
+ */
+@Component
+public class TransferStageTimers {
+
+    public enum Stage {
+        VALIDATE,
+        // includes waiting for a database slot; db.bulkhead.wait isolates that part
+        PERSIST,
+        // the ReserveFunds gRPC call
+        RESERVE,
+        // status update, rollup and outbox row in one transaction
+        COMMIT
+    }
+
+    public enum Outcome {
+        COMPLETED,
+        // validation or insufficient funds: the caller gets a 400
+        REJECTED,
+        FAILED
+    }
+
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Timer> totals = new EnumMap<>(Outcome.class);
+    private final Tracer tracer;
+
+    public TransferStageTimers(MeterRegistry meterRegistry, Tracer tracer) {
+        this.tracer = tracer;
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, Timer.builder("transfer.stage")
+                    .description("Time spent in one stage of a transfer")
+                    .tag("stage", stage.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            totals.put(outcome, Timer.builder("transfer.process")
+                    .description("End-to-end time of a transfer request in the transaction-service")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T record(Stage stage, Supplier<T> work) {
+        if (tracer.currentSpan() == null) {
+            return stages.get(stage).record(work);
+        }
+        Span span = tracer.nextSpan().name("transfer." + stage.name().toLowerCase()).start();
+        Tracer.SpanInScope scope = tracer.withSpan(span);
+        try {
+            return stages.get(stage).record(work);
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            scope.close();
+            span.end();
+        }
+    }
+
+    public void record(Stage stage, Runnable work) {
+        record(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void recordTotal(Outcome outcome, long startNanos) {
+        totals.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
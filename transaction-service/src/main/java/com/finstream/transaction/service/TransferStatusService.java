@@ -0,0 +1,96 @@
+package com.finstream.transaction.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.model.TransactionStatus;
+import com.finstream.transaction.repository.TransactionRepository;
+
+/**
+ * Moves async transfers out of PENDING when the wallet-service reports the outcome,
+ * and wakes any long-poll requests waiting on them. Waiters are held in memory on the
+ * replica that took the request; if another replica consumes the result, the waiter
+ * simply re-reads the row when its poll times out.
+ */
+@Service
+public class TransferStatusService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferStatusService.class);
+
+    private final TransactionRepository transactionRepository;
+    private final RollupService rollupService;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseBulkhead databaseBulkhead;
+
+    private final ConcurrentHashMap<UUID, Set<Consumer<Transaction>>> waiters = new ConcurrentHashMap<>();
+
+    public TransferStatusService(TransactionRepository transactionRepository,
+                                 RollupService rollupService,
+                                 TransactionTemplate transactionTemplate,
+                                 DatabaseBulkhead databaseBulkhead) {
+        this.transactionRepository = transactionRepository;
+        this.rollupService = rollupService;
+        this.transactionTemplate = transactionTemplate;
+        this.databaseBulkhead = databaseBulkhead;
+    }
+
+    public Optional<Transaction> getStatus(UUID transactionId) {
+        return databaseBulkhead.call(() -> transactionRepository.findById(transactionId));
+    }
+
+    public void finalizeTransfer(UUID transactionId, boolean applied, String reason) {
+        TransactionStatus status = applied ? TransactionStatus.COMPLETED : TransactionStatus.FAILED;
+        // no timeout here: a result given up on would leave the transfer PENDING for good
+        Transaction tx = databaseBulkhead.callWhenFree(() -> transactionTemplate.execute(s -> {
+            if (transactionRepository.finalizePending(transactionId, status) == 0) {
+                return null;
+            }
+            Transaction finalized = transactionRepository.findById(transactionId).orElseThrow();
+            if (applied) {
+                rollupService.record(List.of(finalized));
+            }
+            return finalized;
+        }));
+
+        if (tx == null) {
+            // sync transfers are already final, and redelivered results land here too
+            log.debug("Result for {} ignored, transaction is not pending", transactionId);
+            return;
+        }
+        if (!applied) {
+            log.warn("Transfer {} rejected by wallet-service: {}", transactionId, reason);
+        }
+
+        Set<Consumer<Transaction>> listeners = waiters.remove(transactionId);
+        if (listeners != null) {
+            listeners.forEach(listener -> listener.accept(tx));
+        }
+    }
+
+    /**
+     * Registers a callback for when the transfer leaves PENDING on this replica.
+     * Returns the handle that unregisters it; callers must check the current status
+     * after subscribing so a result that lands in between is not missed.
+     */
+    public Runnable subscribe(UUID transactionId, Consumer<Transaction> listener) {
+        waiters.compute(transactionId, (k, set) -> {
+            Set<Consumer<Transaction>> listeners = set != null ? set : ConcurrentHashMap.newKeySet();
+            listeners.add(listener);
+            return listeners;
+        });
+        return () -> waiters.computeIfPresent(transactionId, (k, set) -> {
+            set.remove(listener);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
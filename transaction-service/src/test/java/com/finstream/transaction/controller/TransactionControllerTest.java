@@ -0,0 +1,90 @@
+package com.finstream.transaction.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.finstream.transaction.dto.TransactionRequest;
+import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.service.BatchTransferService;
+import com.finstream.transaction.service.RollupService;
+import com.finstream.transaction.service.TransactionOrchestrator;
+import com.finstream.transaction.service.TransferStatusService;
+
+class TransactionControllerTest {
+
+    private final TransactionOrchestrator orchestrator = mock(TransactionOrchestrator.class);
+    private final BatchTransferService batchTransferService = mock(BatchTransferService.class);
+    private final RollupService rollupService = mock(RollupService.class);
+    private final TransactionController controller = new TransactionController(
+        orchestrator, batchTransferService, rollupService, mock(TransferStatusService.class));
+
+    private final UUID caller = UUID.randomUUID();
+    private final UUID other = UUID.randomUUID();
+
+    @Test
+    void refusesATransferFromAnotherUsersWallet() {
+        assertThat(controller.transfer(request(other, caller), false, signedIn(caller)).getStatusCode())
+            .isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(orchestrator);
+    }
+
+    @Test
+    void acceptsATransferFromTheCallersWallet() {
+        when(orchestrator.process(any())).thenReturn(new Transaction());
+
+        assertThat(controller.transfer(request(caller, other), false, signedIn(caller)).getStatusCode())
+            .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void refusesAWholeBatchIfAnyItemSendsFromAnotherWallet() {
+        List<TransactionRequest> batch = List.of(request(caller, other), request(other, caller));
+
+        assertThat(controller.transferBatch(batch, signedIn(caller)).getStatusCode())
+            .isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(batchTransferService);
+    }
+
+    @Test
+    void refusesAnotherUsersHistoryAndSummary() {
+        MockHttpServletRequest request = signedIn(caller);
+
+        assertThat(controller.getHistoryPage(other, null, null, null, null, request).getStatusCode())
+            .isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(controller.getSummary(other, null, request).getStatusCode())
+            .isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(orchestrator, rollupService);
+    }
+
+    @Test
+    void servesTheCallersOwnSummary() {
+        assertThat(controller.getSummary(caller, 3, signedIn(caller)).getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(rollupService).getSummary(caller, 3);
+    }
+
+    private static MockHttpServletRequest signedIn(UUID userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("userId", userId.toString());
+        return request;
+    }
+
+    private static TransactionRequest request(UUID sender, UUID receiver) {
+        TransactionRequest request = new TransactionRequest();
+        request.setSenderId(sender);
+        request.setReceiverId(receiver);
+        request.setAmount(new BigDecimal("1.00"));
+        return request;
+    }
+}
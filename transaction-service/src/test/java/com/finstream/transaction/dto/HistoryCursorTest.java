@@ -0,0 +1,39 @@
+package com.finstream.transaction.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class HistoryCursorTest {
+
+    @Test
+    void roundTripsTimestampAndId() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        UUID id = UUID.randomUUID();
+
+        HistoryCursor decoded = HistoryCursor.decode(new HistoryCursor(timestamp, id).encode());
+
+        assertThat(decoded.getTimestamp()).isEqualTo(timestamp);
+        assertThat(decoded.getId()).isEqualTo(id);
+    }
+
+    @Test
+    void encodesUrlSafe() {
+        String encoded = new HistoryCursor(LocalDateTime.of(2024, 1, 1, 0, 0), UUID.randomUUID()).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThatThrownBy(() -> HistoryCursor.decode("not a cursor"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> HistoryCursor.decode("bm8tc2VwYXJhdG9y"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.finstream.transaction.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.common.events.TransactionEvent;
+import com.finstream.transaction.model.OutboxEvent;
+import com.finstream.transaction.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.propagation.Propagator;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, TransactionEvent> kafkaTemplate = mock(KafkaTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        relay = new OutboxRelay(repository, kafkaTemplate, transactionTemplate, Propagator.NOOP, meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxBatchesPerPoll", 5);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1_000L);
+        ReflectionTestUtils.setField(relay, "claimMs", 30_000L);
+    }
+
+    @Test
+    void marksOnlyAckedEventsPublished() {
+        OutboxEvent acked = event(1L);
+        OutboxEvent failed = event(2L);
+        when(repository.lockNextBatch(anyInt(), any(LocalDateTime.class))).thenReturn(List.of(acked, failed));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(repository).markPublished(ids.capture(), any(LocalDateTime.class));
+        assertThat(ids.getValue()).containsExactly(1L);
+        verify(repository).releaseClaims(List.of(2L));
+        assertThat(meterRegistry.counter("outbox.relay.published").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("outbox.relay.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void marksNothingWhenEverySendFails() {
+        when(repository.lockNextBatch(anyInt(), any(LocalDateTime.class))).thenReturn(List.of(event(1L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        relay.relay();
+
+        verify(repository, never()).markPublished(any(), any());
+        verify(repository).releaseClaims(List.of(1L));
+        assertThat(meterRegistry.counter("outbox.relay.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsDrainingWhileBatchesComeBackFull() {
+        List<OutboxEvent> full = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            full.add(event(id));
+        }
+        when(repository.lockNextBatch(anyInt(), any(LocalDateTime.class))).thenReturn(full, List.of(event(11L)));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        relay.relay();
+
+        verify(repository, times(2)).lockNextBatch(eq(10), any(LocalDateTime.class));
+        assertThat(meterRegistry.counter("outbox.relay.published").count()).isEqualTo(11);
+    }
+
+    @Test
+    void claimsBatchAndWaitsForAcksOutsideTheTransaction() {
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        doAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        }).when(transactionTemplate).execute(any());
+        when(repository.lockNextBatch(anyInt(), any(LocalDateTime.class))).thenReturn(List.of(event(1L), event(2L)));
+        List<Boolean> sentInTransaction = new ArrayList<>();
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenAnswer(invocation -> {
+            sentInTransaction.add(inTransaction.get());
+            return CompletableFuture.completedFuture(mock(SendResult.class));
+        });
+
+        relay.relay();
+
+        assertThat(sentInTransaction).containsExactly(false, false);
+        ArgumentCaptor<LocalDateTime> claimedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).claim(eq(List.of(1L, 2L)), claimedUntil.capture());
+        assertThat(claimedUntil.getValue()).isAfter(LocalDateTime.now().plusSeconds(20));
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    private static OutboxEvent event(long id) {
+        OutboxEvent event = new OutboxEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), new BigDecimal("5.00"));
+        event.setId(id);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
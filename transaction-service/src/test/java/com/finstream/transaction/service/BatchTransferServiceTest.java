@@ -0,0 +1,124 @@
+package com.finstream.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.common.money.Money;
+import com.finstream.transaction.dto.BatchTransferResult;
+import com.finstream.transaction.dto.TransactionRequest;
+import com.finstream.transaction.grpc.WalletGrpcClient;
+import com.finstream.transaction.model.OutboxEvent;
+import com.finstream.transaction.model.TransactionStatus;
+import com.finstream.transaction.repository.OutboxEventRepository;
+import com.finstream.transaction.repository.TransactionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BatchTransferServiceTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final WalletGrpcClient walletGrpcClient = mock(WalletGrpcClient.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private BatchTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        service = new BatchTransferService(transactionRepository, outboxEventRepository, walletGrpcClient,
+            transactionTemplate, new DatabaseBulkhead(4, 1_000, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "maxItems", 3);
+        ReflectionTestUtils.setField(service, "balanceTimeoutMs", 1_000L);
+    }
+
+    @Test
+    void allocatesEachSendersBalanceInRequestOrder() {
+        UUID sender = UUID.randomUUID();
+        when(walletGrpcClient.getBalances(anyCollection(), anyLong()))
+            .thenReturn(Map.of(sender, Money.of(new BigDecimal("10.00"), Money.USD)));
+
+        List<BatchTransferResult> results = service.processBatch(List.of(
+            request(sender, "6.00"), request(sender, "5.00"), request(sender, "4.00")));
+
+        assertThat(results).extracting(BatchTransferResult::getStatus)
+            .containsExactly(TransactionStatus.PENDING, TransactionStatus.FAILED, TransactionStatus.PENDING);
+        assertThat(results.get(1).getError()).isEqualTo("Insufficient balance");
+    }
+
+    @Test
+    void queuesEventsOnlyForPendingItems() {
+        UUID sender = UUID.randomUUID();
+        when(walletGrpcClient.getBalances(anyCollection(), anyLong()))
+            .thenReturn(Map.of(sender, Money.of(new BigDecimal("1.00"), Money.USD)));
+
+        service.processBatch(List.of(request(sender, "1.00"), request(sender, "1.00")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository).saveAll(events.capture());
+        assertThat(events.getValue()).hasSize(1);
+    }
+
+    @Test
+    void reportsInvalidItemsWithoutFailingTheBatch() {
+        UUID sender = UUID.randomUUID();
+        when(walletGrpcClient.getBalances(anyCollection(), anyLong()))
+            .thenReturn(Map.of(sender, Money.of(new BigDecimal("100.00"), Money.USD)));
+
+        List<BatchTransferResult> results = service.processBatch(List.of(
+            request(sender, "0.001"), request(sender, "100000000000000000"), request(sender, "1.00")));
+
+        assertThat(results).extracting(BatchTransferResult::getError)
+            .containsExactly("Amount must be in whole cents", "Amount is too large", null);
+    }
+
+    @Test
+    void failsASendersItemsWhenItsBalanceIsUnknown() {
+        when(walletGrpcClient.getBalances(anyCollection(), anyLong())).thenReturn(Map.of());
+
+        List<BatchTransferResult> results = service.processBatch(List.of(request(UUID.randomUUID(), "1.00")));
+
+        assertThat(results.get(0).getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(results.get(0).getError()).isEqualTo("Failed to validate balance with wallet service");
+    }
+
+    @Test
+    void rejectsBatchesOverTheLimit() {
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            requests.add(request(UUID.randomUUID(), "1.00"));
+        }
+
+        assertThatThrownBy(() -> service.processBatch(requests))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("maximum of 3");
+    }
+
+    private static TransactionRequest request(UUID sender, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setSenderId(sender);
+        request.setReceiverId(UUID.randomUUID());
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}
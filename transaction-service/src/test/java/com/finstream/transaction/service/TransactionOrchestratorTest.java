@@ -0,0 +1,126 @@
+package com.finstream.transaction.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.finstream.transaction.dto.HistoryCursor;
+import com.finstream.transaction.dto.HistoryPage;
+import com.finstream.transaction.grpc.WalletGrpcClient;
+import com.finstream.transaction.model.Transaction;
+import com.finstream.transaction.repository.OutboxEventRepository;
+import com.finstream.transaction.repository.TransactionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+
+class TransactionOrchestratorTest {
+
+    private static final UUID USER = UUID.randomUUID();
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private TransactionOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        orchestrator = new TransactionOrchestrator(transactionRepository, mock(OutboxEventRepository.class),
+            mock(WalletGrpcClient.class), mock(RollupService.class), mock(TransactionTemplate.class),
+            new DatabaseBulkhead(4, 1_000, new SimpleMeterRegistry()),
+            new TransferStageTimers(new SimpleMeterRegistry(), Tracer.NOOP), Tracer.NOOP, Propagator.NOOP);
+        ReflectionTestUtils.setField(orchestrator, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(orchestrator, "maxPageSize", 10);
+    }
+
+    @Test
+    void mergesSentAndReceivedNewestFirstAndPointsTheCursorAtTheLastItem() {
+        Transaction sent = tx(T0.plusMinutes(3));
+        Transaction received = tx(T0.plusMinutes(2));
+        Transaction older = tx(T0.plusMinutes(1));
+        when(transactionRepository.findSentBefore(eq(USER), any(), any(), any(), any(), anyInt()))
+            .thenReturn(List.of(sent, older));
+        when(transactionRepository.findReceivedBefore(eq(USER), any(), any(), any(), any(), anyInt()))
+            .thenReturn(List.of(received));
+
+        HistoryPage page = orchestrator.getHistoryPage(USER, null, null, null, null);
+
+        assertThat(page.getItems()).containsExactly(sent, received);
+        assertThat(page.isHasMore()).isTrue();
+        HistoryCursor next = HistoryCursor.decode(page.getNextCursor());
+        assertThat(next.getTimestamp()).isEqualTo(received.getTimestamp());
+        assertThat(next.getId()).isEqualTo(received.getId());
+    }
+
+    @Test
+    void appliesTheCursorEvenWhenItSitsOnTheEndOfTheRange() {
+        Transaction last = tx(T0);
+        String cursor = HistoryCursor.after(last).encode();
+
+        HistoryPage page = orchestrator.getHistoryPage(USER, 5, cursor, T0.minusDays(1), T0);
+
+        // the range stays [from, to]; the cursor bounds the scan on its own
+        verify(transactionRepository).findSentBefore(USER, T0.minusDays(1), T0, T0, last.getId(), 6);
+        verify(transactionRepository).findReceivedBefore(USER, T0.minusDays(1), T0, T0, last.getId(), 6);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void breaksTimestampTiesByUnsignedIdLikePostgres() {
+        // signed comparison would put the 0x8… id first
+        Transaction high = tx(T0, new UUID(0x8000_0000_0000_0000L, 0));
+        Transaction low = tx(T0, new UUID(0x7FFF_FFFF_FFFF_FFFFL, 0));
+        when(transactionRepository.findSentBefore(eq(USER), any(), any(), any(), any(), anyInt()))
+            .thenReturn(List.of(low));
+        when(transactionRepository.findReceivedBefore(eq(USER), any(), any(), any(), any(), anyInt()))
+            .thenReturn(List.of(high));
+
+        HistoryPage page = orchestrator.getHistoryPage(USER, 5, null, null, null);
+
+        assertThat(page.getItems()).containsExactly(high, low);
+    }
+
+    @Test
+    void clampsThePageSize() {
+        orchestrator.getHistoryPage(USER, 1_000, null, null, null);
+
+        verify(transactionRepository).findSentBefore(eq(USER), any(), any(), any(), any(), eq(11));
+    }
+
+    @Test
+    void tellsFractionalCentsApartFromOverflow() {
+        assertThat(TransactionOrchestrator.amountError(new BigDecimal("10.50"))).isNull();
+        assertThat(TransactionOrchestrator.amountError(new BigDecimal("10.500"))).isNull();
+        assertThat(TransactionOrchestrator.amountError(new BigDecimal("10.505"))).isEqualTo("Amount must be in whole cents");
+        assertThat(TransactionOrchestrator.amountError(new BigDecimal("1E+17"))).isEqualTo("Amount is too large");
+    }
+
+    private static Transaction tx(LocalDateTime timestamp) {
+        return tx(timestamp, UUID.randomUUID());
+    }
+
+    private static Transaction tx(LocalDateTime timestamp, UUID id) {
+        Transaction tx = new Transaction();
+        tx.setId(id);
+        tx.setSenderId(USER);
+        tx.setReceiverId(UUID.randomUUID());
+        tx.setAmount(new BigDecimal("1.00"));
+        tx.setTimestamp(timestamp);
+        return tx;
+    }
+}
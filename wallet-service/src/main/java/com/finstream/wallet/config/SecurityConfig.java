@@ -2,32 +2,50 @@ package com.finstream.wallet.config;
 
 import java.util.Arrays;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import com.finstream.common.auth.IdentityHeader;
+import com.finstream.common.ratelimit.InMemoryRateLimitStore;
+import com.finstream.common.ratelimit.RateLimitFilter;
+import com.finstream.common.ratelimit.RateLimitStore;
 import com.finstream.wallet.security.JwtAuthenticationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class SecurityConfig {
 
-    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    @Bean
+    public BCryptPasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(10);
+    }
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
-        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    // verifies the identity the gateway forwards after checking the JWT
+    @Bean
+    public IdentityHeader identityHeader(@Value("${auth.identity.secret}") String secret,
+                                         @Value("${auth.identity.ttl-ms:30000}") long ttlMs) {
+        return new IdentityHeader(secret, ttlMs);
     }
 
+    // buckets are per replica; a RateLimitStore bean backed by a shared store replaces this one
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    public RateLimitStore rateLimitStore(@Value("${rate-limit.max-keys:100000}") int maxKeys,
+                                         @Value("${rate-limit.idle-expiry-ms:900000}") long idleExpiryMs) {
+        return new InMemoryRateLimitStore(maxKeys, idleExpiryMs);
     }
 
     @Bean
-    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilter() {
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilter(JwtAuthenticationFilter jwtAuthenticationFilter) {
         FilterRegistrationBean<JwtAuthenticationFilter> registrationBean = new FilterRegistrationBean<>();
         registrationBean.setFilter(jwtAuthenticationFilter);
         registrationBean.addUrlPatterns("/api/*");
@@ -35,6 +53,17 @@ public class SecurityConfig {
         return registrationBean;
     }
 
+    // after JWT, so user-keyed policies see the userId attribute
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitStore rateLimitStore,
+                                                                   Environment environment,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registrationBean =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimitStore, environment, meterRegistry));
+        registrationBean.setOrder(2);
+        return registrationBean;
+    }
+
     @Bean
     public FilterRegistrationBean<CorsFilter> corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,34 @@
+package com.finstream.wallet.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.exporter.SpanExportingPredicate;
+
+/**
+ * Tracing is Micrometer Observation on OpenTelemetry: HTTP requests and gRPC calls get
+ * spans from Boot and grpc-spring-boot, continuing the caller's {@code traceparent}.
+ * Transfer events carry it as a Kafka header, and the result events carry it back.
+ * Spans go to {@code management.zipkin.tracing.endpoint} when
+ * {@code tracing.export.type} is {@code zipkin}.
+ */
+@Configuration
+public class TracingConfig {
+
+    // with export off the trace context is still propagated; finished spans are just dropped
+    @Bean
+    @ConditionalOnProperty(name = "tracing.export.type", havingValue = "none", matchIfMissing = true)
+    SpanExportingPredicate noSpanExport() {
+        return span -> false;
+    }
+
+    // scrapes and probes would otherwise start a trace each
+    @Bean
+    ObservationPredicate skipActuatorObservations() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && request.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+}
@@ -7,9 +7,12 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -25,8 +28,9 @@ import com.finstream.wallet.model.Wallet;
 import com.finstream.wallet.repository.UserRepository;
 import com.finstream.wallet.repository.WalletRepository;
 import com.finstream.wallet.security.CookieUtil;
+import com.finstream.wallet.security.HashingBusyException;
 import com.finstream.wallet.security.JwtUtil;
-import com.finstream.wallet.security.RateLimitingService;
+import com.finstream.wallet.security.PasswordHasher;
 import com.finstream.wallet.service.WalletService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -37,25 +41,25 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/wallet")
 public class WalletController {
 
+    private static final Logger log = LoggerFactory.getLogger(WalletController.class);
+
     private final WalletService walletService;
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtil jwtUtil;
-    private final RateLimitingService rateLimitingService;
     private final CookieUtil cookieUtil;
 
     public WalletController(WalletService walletService, UserRepository userRepository, 
                            WalletRepository walletRepository, JwtUtil jwtUtil,
-                           RateLimitingService rateLimitingService, CookieUtil cookieUtil,
-                           BCryptPasswordEncoder passwordEncoder) {
+                           CookieUtil cookieUtil,
+                           PasswordHasher passwordHasher) {
         this.walletService = walletService;
         this.userRepository = userRepository;
         this.walletRepository = walletRepository;
         this.jwtUtil = jwtUtil;
-        this.rateLimitingService = rateLimitingService;
         this.cookieUtil = cookieUtil;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
     }
 
     // get current user from JWT cookie
@@ -81,12 +85,12 @@ public class WalletController {
 
     @GetMapping("/{userId}/balance")
     public ResponseEntity<?> getBalance(@PathVariable String userId) {
-        return walletService.getWalletByUserId(UUID.fromString(userId))
+        return walletService.getBalance(UUID.fromString(userId))
                 .<ResponseEntity<?>>map(w -> {
                     java.util.Map<String, Object> payload = new java.util.LinkedHashMap<>();
                     payload.put("userId", userId);
-                    payload.put("balance", w.getBalance());
-                    payload.put("currency", w.getCurrency());
+                    payload.put("balance", w.getBalance().toBigDecimal());
+                    payload.put("currency", w.getBalance().getCurrency());
                     return ResponseEntity.ok(payload);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
@@ -115,7 +119,7 @@ public class WalletController {
             User user = new User();
             user.setFullName(request.getFullName());
             user.setEmail(request.getEmail());
-            user.setPasswordHash(passwordEncoder.encode(request.getPassword()));
+            user.setPasswordHash(passwordHasher.encode(request.getPassword()));
             User savedUser = userRepository.save(user);
 
             // create wallet -> $1000 initial balance
@@ -130,20 +134,16 @@ public class WalletController {
 
             return ResponseEntity.ok(Map.of("success", true));
 
+        } catch (HashingBusyException e) {
+            return hashingBusy(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-        String clientIp = httpRequest.getRemoteAddr();
-        
-        if (!rateLimitingService.tryConsume("login_" + clientIp)) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body(Map.of("error", "Too many login attempts. Please try again later."));
-        }
-
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request, HttpServletResponse httpResponse) {
+        // attempts per address are capped by RateLimitFilter (rate-limit.policies.login)
         try {
             Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
             if (userOpt.isEmpty()) {
@@ -151,7 +151,7 @@ public class WalletController {
             }
 
             User user = userOpt.get();
-            if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+            if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
                 return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
             }
 
@@ -160,6 +160,8 @@ public class WalletController {
 
             return ResponseEntity.ok(Map.of("success", true));
 
+        } catch (HashingBusyException e) {
+            return hashingBusy(e);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of("error", "Login failed"));
         }
@@ -204,6 +206,14 @@ public class WalletController {
         }
     }
 
+    @ExceptionHandler(HashingBusyException.class)
+    public ResponseEntity<?> hashingBusy(HashingBusyException e) {
+        log.warn("Shedding sign-in: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout(HttpServletResponse response) {
         cookieUtil.removeAuthCookie(response);
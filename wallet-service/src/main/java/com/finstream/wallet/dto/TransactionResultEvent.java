@@ -0,0 +1,37 @@
+package com.finstream.wallet.dto;
+
+import java.util.UUID;
+
+public class TransactionResultEvent {
+    private UUID transactionId;
+    private boolean applied;
+    private String reason;
+    // the wallets the transfer touched, so every replica can drop them from its balance cache
+    private UUID senderId;
+    private UUID receiverId;
+
+    public TransactionResultEvent() {}
+
+    public TransactionResultEvent(UUID transactionId, boolean applied, String reason, UUID senderId, UUID receiverId) {
+        this.transactionId = transactionId;
+        this.applied = applied;
+        this.reason = reason;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+    }
+
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+
+    public boolean isApplied() { return applied; }
+    public void setApplied(boolean applied) { this.applied = applied; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public UUID getSenderId() { return senderId; }
+    public void setSenderId(UUID senderId) { this.senderId = senderId; }
+
+    public UUID getReceiverId() { return receiverId; }
+    public void setReceiverId(UUID receiverId) { this.receiverId = receiverId; }
+}
@@ -0,0 +1,27 @@
+package com.finstream.wallet.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One transfer taken off the transactions topic. {@code transactionId} is null for
+ * events published before ids were added.
+ */
+public class TransferInstruction {
+    private final UUID transactionId;
+    private final UUID senderId;
+    private final UUID receiverId;
+    private final BigDecimal amount;
+
+    public TransferInstruction(UUID transactionId, UUID senderId, UUID receiverId, BigDecimal amount) {
+        this.transactionId = transactionId;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.amount = amount;
+    }
+
+    public UUID getTransactionId() { return transactionId; }
+    public UUID getSenderId() { return senderId; }
+    public UUID getReceiverId() { return receiverId; }
+    public BigDecimal getAmount() { return amount; }
+}
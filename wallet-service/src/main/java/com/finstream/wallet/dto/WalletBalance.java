@@ -0,0 +1,19 @@
+package com.finstream.wallet.dto;
+
+import java.util.UUID;
+
+import com.finstream.common.money.Money;
+
+// immutable, so one instance can be shared by every reader of the wallet cache
+public class WalletBalance {
+    private final UUID userId;
+    private final Money balance;
+
+    public WalletBalance(UUID userId, Money balance) {
+        this.userId = userId;
+        this.balance = balance;
+    }
+
+    public UUID getUserId() { return userId; }
+    public Money getBalance() { return balance; }
+}
@@ -1,20 +1,29 @@
 package com.finstream.wallet.grpc;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.UUID;
 
 import com.finstream.common.grpc.BalanceCheckRequest;
 import com.finstream.common.grpc.BalanceCheckResponse;
 import com.finstream.common.grpc.BalanceRequest;
 import com.finstream.common.grpc.BalanceResponse;
+import com.finstream.common.grpc.ReleaseFundsRequest;
+import com.finstream.common.grpc.ReleaseFundsResponse;
+import com.finstream.common.grpc.ReserveFundsRequest;
+import com.finstream.common.grpc.ReserveFundsResponse;
 import com.finstream.common.grpc.UserValidationRequest;
 import com.finstream.common.grpc.UserValidationResponse;
 import com.finstream.common.grpc.WalletServiceGrpc;
+import com.finstream.common.money.Money;
 import com.finstream.wallet.service.WalletService;
 
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 
+// the deprecated double fields are still read and written for replicas on the previous version
+@SuppressWarnings("deprecation")
 @GrpcService
 public class GrpcWalletService extends WalletServiceGrpc.WalletServiceImplBase {
 
@@ -28,22 +37,24 @@ public class GrpcWalletService extends WalletServiceGrpc.WalletServiceImplBase {
     public void checkSufficientBalance(BalanceCheckRequest request, StreamObserver<BalanceCheckResponse> responseObserver) {
         try {
             UUID userId = UUID.fromString(request.getUserId());
-            BigDecimal requiredAmount = BigDecimal.valueOf(request.getAmount());
+            long requiredMinor = amountMinor(request.hasAmountMinor(), request.getAmountMinor(), request.getAmount());
             
-            var wallet = walletService.getWalletByUserId(userId);
+            var wallet = walletService.getBalance(userId);
             
             BalanceCheckResponse.Builder responseBuilder = BalanceCheckResponse.newBuilder();
             
             if (wallet.isPresent()) {
-                BigDecimal currentBalance = wallet.get().getBalance();
-                boolean hasSufficient = currentBalance.compareTo(requiredAmount) >= 0;
+                Money currentBalance = wallet.get().getBalance();
+                boolean hasSufficient = currentBalance.getMinorUnits() >= requiredMinor;
                 
                 responseBuilder
                     .setHasSufficientBalance(hasSufficient)
-                    .setCurrentBalance(currentBalance.doubleValue());
+                    .setCurrentBalanceMinor(currentBalance.getMinorUnits())
+                    .setCurrentBalance(currentBalance.toBigDecimal().doubleValue());
             } else {
                 responseBuilder
                     .setHasSufficientBalance(false)
+                    .setCurrentBalanceMinor(0)
                     .setCurrentBalance(0.0);
             }
             
@@ -78,16 +89,20 @@ public class GrpcWalletService extends WalletServiceGrpc.WalletServiceImplBase {
     public void getBalance(BalanceRequest request, StreamObserver<BalanceResponse> responseObserver) {
         try {
             UUID userId = UUID.fromString(request.getUserId());
-            var wallet = walletService.getWalletByUserId(userId);
+            var wallet = walletService.getBalance(userId);
             
             BalanceResponse.Builder responseBuilder = BalanceResponse.newBuilder()
                 .setUserId(request.getUserId())
                 .setCurrency("USD");
             
             if (wallet.isPresent()) {
-                responseBuilder.setBalance(wallet.get().getBalance().doubleValue());
+                Money balance = wallet.get().getBalance();
+                responseBuilder
+                    .setCurrency(balance.getCurrency())
+                    .setBalanceMinor(balance.getMinorUnits())
+                    .setBalance(balance.toBigDecimal().doubleValue());
             } else {
-                responseBuilder.setBalance(0.0);
+                responseBuilder.setBalanceMinor(0).setBalance(0.0);
             }
             
             responseObserver.onNext(responseBuilder.build());
@@ -97,5 +112,53 @@ public class GrpcWalletService extends WalletServiceGrpc.WalletServiceImplBase {
             responseObserver.onError(e);
         }
     }
-}
 
+    @Override
+    public void reserveFunds(ReserveFundsRequest request, StreamObserver<ReserveFundsResponse> responseObserver) {
+        try {
+            UUID transactionId = UUID.fromString(request.getTransactionId());
+            UUID userId = UUID.fromString(request.getUserId());
+            long minor = amountMinor(request.hasAmountMinor(), request.getAmountMinor(), request.getAmount());
+            if (minor <= 0) {
+                // a hold for nothing would still be captured into the receiver later
+                responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Amount must be positive")
+                    .asRuntimeException());
+                return;
+            }
+
+            String reason = walletService.reserveFunds(transactionId, userId, Money.ofMinor(minor, Money.USD).toBigDecimal());
+
+            responseObserver.onNext(ReserveFundsResponse.newBuilder()
+                .setReserved(reason == null)
+                .setReason(reason == null ? "" : reason)
+                .build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            responseObserver.onError(e);
+        }
+    }
+
+    @Override
+    public void releaseFunds(ReleaseFundsRequest request, StreamObserver<ReleaseFundsResponse> responseObserver) {
+        try {
+            UUID transactionId = UUID.fromString(request.getTransactionId());
+            boolean released = walletService.releaseFunds(transactionId);
+
+            responseObserver.onNext(ReleaseFundsResponse.newBuilder()
+                .setReleased(released)
+                .build());
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            responseObserver.onError(e);
+        }
+    }
+
+    // callers on the previous version only send the double; round it to the nearest cent
+    private static long amountMinor(boolean hasMinor, long minor, double legacy) {
+        return hasMinor ? minor
+            : Money.of(BigDecimal.valueOf(legacy).setScale(2, RoundingMode.HALF_EVEN), Money.USD).getMinorUnits();
+    }
+}
@@ -0,0 +1,99 @@
+package com.finstream.wallet.grpc;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+
+/**
+ * Server-side latency per method and status, from the call arriving until it completes
+ * or is cancelled, plus the number of calls in progress. Compared with the client's
+ * {@code grpc.client.endpoint.latency}, the difference is time on the network and in
+ * the client's channel.
+ */
+@GrpcGlobalServerInterceptor
+public class ServerLatencyInterceptor implements ServerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ServerLatencyInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("grpc.server.calls.active", active, AtomicInteger::get)
+            .description("Wallet-service gRPC calls in progress")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        long start = System.nanoTime();
+        active.incrementAndGet();
+        String method = call.getMethodDescriptor().getBareMethodName();
+        // set by close(); a call the client cancels never gets there
+        Status[] closed = new Status[1];
+
+        ServerCall<ReqT, RespT> recording = new SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                closed[0] = status;
+                super.close(status, trailers);
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(recording, headers);
+        } catch (RuntimeException e) {
+            // the call never gets a listener, so neither callback below would count it down
+            record(method, Status.fromThrowable(e).getCode(), start);
+            throw e;
+        }
+        // gRPC calls exactly one of onComplete and onCancel per call
+        return new SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    record(method, closed[0] != null ? closed[0].getCode() : Status.Code.OK, start);
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    record(method, Status.Code.CANCELLED, start);
+                }
+            }
+        };
+    }
+
+    private void record(String method, Status.Code code, long start) {
+        long elapsed = System.nanoTime() - start;
+        active.decrementAndGet();
+        timers.computeIfAbsent(new TimerKey(method, code), k -> Timer.builder("grpc.server.call.latency")
+                .description("Wallet-service gRPC call latency by method, measured on the server")
+                .tag("method", k.method())
+                .tag("status", k.code().name())
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+            .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    private record TimerKey(String method, Status.Code code) {}
+}
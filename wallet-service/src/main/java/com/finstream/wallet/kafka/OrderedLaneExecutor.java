@@ -0,0 +1,92 @@
+package com.finstream.wallet.kafka;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fixed set of single-threaded lanes. Each item goes to the lane picked by hashing its key,
+ * so items with the same key run one at a time in the order given while different keys
+ * run in parallel. Used to spread one Kafka poll across wallets without reordering any
+ * single wallet's events.
+ */
+@Component
+public class OrderedLaneExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderedLaneExecutor.class);
+
+    private final ExecutorService[] lanes;
+
+    public OrderedLaneExecutor(@Value("${wallet.consumer.lanes:8}") int laneCount) {
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            int lane = i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "wallet-lane-" + lane);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs every item and waits for all lanes to finish. A lane stops at its first failure
+     * so later items for that key are not applied out of order. Returns the lowest index
+     * that failed or was skipped, or -1 if everything succeeded.
+     */
+    public <T> int runAll(List<T> items, Function<T, String> keyOf, Consumer<T> work) {
+        List<List<Integer>> byLane = new ArrayList<>(lanes.length);
+        for (int i = 0; i < lanes.length; i++) {
+            byLane.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            String key = keyOf.apply(items.get(i));
+            byLane.get(key == null ? 0 : Math.floorMod(key.hashCode(), lanes.length)).add(i);
+        }
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int lane = 0; lane < lanes.length; lane++) {
+            List<Integer> indexes = byLane.get(lane);
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            results.add(CompletableFuture.supplyAsync(() -> {
+                for (int index : indexes) {
+                    try {
+                        work.accept(items.get(index));
+                    } catch (RuntimeException e) {
+                        log.error("Lane item {} failed: {}", index, e.getMessage(), e);
+                        return index;
+                    }
+                }
+                return -1;
+            }, lanes[lane]));
+        }
+
+        int firstFailed = -1;
+        for (CompletableFuture<Integer> result : results) {
+            int failed = result.join();
+            if (failed >= 0 && (firstFailed < 0 || failed < firstFailed)) {
+                firstFailed = failed;
+            }
+        }
+        return firstFailed;
+    }
+
+    @Override
+    public void destroy() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
@@ -1,22 +1,269 @@
 package com.finstream.wallet.kafka;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
-import com.finstream.wallet.dto.TransactionEvent;
+import com.finstream.common.events.TransactionEvent;
+import com.finstream.common.events.TransactionEvents;
+import com.finstream.common.tracing.KafkaTracing;
+import com.finstream.wallet.dto.TransactionResultEvent;
+import com.finstream.wallet.dto.TransferInstruction;
+import com.finstream.wallet.model.ProcessedTransfer;
+import com.finstream.wallet.service.TransferBatchService;
 import com.finstream.wallet.service.WalletService;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.propagation.Propagator;
+
+/**
+ * Applies transfer events a whole poll at a time. By default the poll is decided in memory
+ * and written in one DB transaction ({@link TransferBatchService}). If that fails, or with
+ * netting switched off, records are applied one by one over {@link OrderedLaneExecutor}
+ * lanes keyed by sender wallet. Either way the listener returns only after the work is
+ * committed and every reply is acked, so offsets never move ahead of applied transfers.
+ * On a per-record failure, records before it are committed and the rest redelivered; the
+ * ones other lanes already applied are recognised by their processed_transfers row.
+ * Events published before transaction ids were added get one derived from their topic,
+ * partition and offset, so a redelivered one is recognised the same way; they just have
+ * no one to reply to.
+ * <p>
+ * Metrics: {@code wallet.consumer.poll} (time to apply one poll, by path), its size, and
+ * {@code wallet.consumer.event.age}, the time from a record's produce timestamp until
+ * its poll is applied. Offset lag per partition comes from the Kafka client's own
+ * {@code kafka.consumer.fetch.manager.records.lag} metrics.
+ * <p>
+ * Tracing: for a record with a {@code traceparent} header, the time it waited in Kafka and
+ * the poll that applied it are spans in the transfer's trace, and its result event carries
+ * the trace on to the transaction-service.
+ */
 @Component
 public class TransactionEventConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(TransactionEventConsumer.class);
+    private static final String RESULT_TOPIC = "transaction-results";
+
     private final WalletService walletService;
+    private final KafkaTemplate<String, TransactionResultEvent> kafkaTemplate;
+    private final OrderedLaneExecutor laneExecutor;
+    private final TransferBatchService transferBatchService;
+    private final Propagator propagator;
+
+    private final Timer nettedTimer;
+    private final Timer perEventTimer;
+    private final DistributionSummary pollSize;
+    private final Timer eventAge;
 
-    public TransactionEventConsumer(WalletService walletService) {
+    @Value("${wallet.consumer.netting.enabled:true}")
+    private boolean nettingEnabled;
+
+    public TransactionEventConsumer(WalletService walletService,
+                                    KafkaTemplate<String, TransactionResultEvent> kafkaTemplate,
+                                    OrderedLaneExecutor laneExecutor,
+                                    TransferBatchService transferBatchService,
+                                    Propagator propagator,
+                                    MeterRegistry meterRegistry) {
         this.walletService = walletService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.laneExecutor = laneExecutor;
+        this.transferBatchService = transferBatchService;
+        this.propagator = propagator;
+        this.nettedTimer = pollTimer("netted", meterRegistry);
+        this.perEventTimer = pollTimer("per-event", meterRegistry);
+        this.pollSize = DistributionSummary.builder("wallet.consumer.poll.size")
+                .description("Transfer events per poll")
+                .register(meterRegistry);
+        this.eventAge = Timer.builder("wallet.consumer.event.age")
+                .description("Time from a transfer event being produced until the wallet-service applied it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "transactions", groupId = "wallet-group",
+                   concurrency = "${wallet.consumer.concurrency:3}", batch = "true")
+    public void handleTransactions(List<ConsumerRecord<String, TransactionEvent>> records) {
+        long start = System.nanoTime();
+        pollSize.record(records.size());
+        Map<ConsumerRecord<String, TransactionEvent>, Span> traces = startTraces(records);
+        if (nettingEnabled && applyNetted(records, traces)) {
+            nettedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            recordAge(records);
+            endTraces(records, traces, "netted", records.size());
+            return;
+        }
+
+        ConcurrentLinkedQueue<CompletableFuture<?>> replies = new ConcurrentLinkedQueue<>();
+        int failed = laneExecutor.runAll(records, TransactionEventConsumer::walletKey, record -> {
+            CompletableFuture<?> reply = handle(record, traces.get(record));
+            if (reply != null) {
+                replies.add(reply);
+            }
+        });
+
+        // replies for everything that will be committed must be acked first
+        CompletableFuture.allOf(replies.toArray(new CompletableFuture[0])).join();
+        perEventTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        recordAge(failed >= 0 ? records.subList(0, failed) : records);
+        endTraces(records, traces, "per-event", failed >= 0 ? failed : records.size());
+        if (failed >= 0) {
+            throw new BatchListenerFailedException("Transfer event could not be applied", failed);
+        }
+    }
+
+    // returns false if the batch could not be applied as a whole and should go record by record
+    private boolean applyNetted(List<ConsumerRecord<String, TransactionEvent>> records,
+                                Map<ConsumerRecord<String, TransactionEvent>, Span> traces) {
+        List<TransferInstruction> instructions = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, TransactionEvent>> applied = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, TransactionEvent> record : records) {
+            if (record.value() == null) {
+                log.error("Skipping unreadable transfer event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            instructions.add(toInstruction(record));
+            applied.add(record);
+        }
+
+        List<ProcessedTransfer> outcomes;
+        try {
+            outcomes = transferBatchService.applyBatch(instructions);
+        } catch (RuntimeException e) {
+            log.warn("Netted apply of {} events failed, falling back to per-event apply: {}",
+                instructions.size(), e.getMessage());
+            return false;
+        }
+
+        // outcomes line up with instructions
+        List<CompletableFuture<?>> replies = new ArrayList<>(outcomes.size());
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (hasReplyAddress(applied.get(i))) {
+                replies.add(reply(outcomes.get(i), instructions.get(i), traces.get(applied.get(i))));
+            }
+        }
+        CompletableFuture.allOf(replies.toArray(new CompletableFuture[0])).join();
+        return true;
+    }
+
+    private CompletableFuture<?> handle(ConsumerRecord<String, TransactionEvent> record, Span trace) {
+        TransactionEvent event = record.value();
+        if (event == null) {
+            // ErrorHandlingDeserializer leaves the value null for records it could not read
+            log.error("Skipping unreadable transfer event at {}-{}@{}", record.topic(), record.partition(), record.offset());
+            return null;
+        }
+
+        TransferInstruction instruction = toInstruction(record);
+        ProcessedTransfer outcome = walletService.applyTransfer(instruction.getTransactionId(), instruction.getSenderId(),
+            instruction.getReceiverId(), instruction.getAmount());
+        return hasReplyAddress(record) ? reply(outcome, instruction, trace) : null;
+    }
+
+    private CompletableFuture<?> reply(ProcessedTransfer outcome, TransferInstruction instruction, Span trace) {
+        ProducerRecord<String, TransactionResultEvent> record = new ProducerRecord<>(RESULT_TOPIC,
+            outcome.getTransactionId().toString(),
+            new TransactionResultEvent(outcome.getTransactionId(), outcome.isApplied(), outcome.getReason(),
+                instruction.getSenderId(), instruction.getReceiverId()));
+        if (trace != null) {
+            trace.tag("transfer.applied", outcome.isApplied());
+            KafkaTracing.inject(propagator, trace.context(), record.headers());
+        }
+        return kafkaTemplate.send(record);
+    }
+
+    // read-only once built, so lane threads can look up their record's span
+    private Map<ConsumerRecord<String, TransactionEvent>, Span> startTraces(List<ConsumerRecord<String, TransactionEvent>> records) {
+        Map<ConsumerRecord<String, TransactionEvent>, Span> traces = null;
+        long polledMicros = KafkaTracing.nowMicros();
+        for (ConsumerRecord<String, TransactionEvent> record : records) {
+            Span span = KafkaTracing.startProcessing(propagator, record, polledMicros);
+            if (span != null) {
+                if (traces == null) {
+                    traces = new IdentityHashMap<>();
+                }
+                traces.put(record, span);
+            }
+        }
+        return traces == null ? Map.of() : traces;
+    }
+
+    // records from index applied on are redelivered, and will be traced again then
+    private static void endTraces(List<ConsumerRecord<String, TransactionEvent>> records,
+                                  Map<ConsumerRecord<String, TransactionEvent>, Span> traces, String path, int applied) {
+        if (traces.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            Span span = traces.get(records.get(i));
+            if (span != null) {
+                span.tag("wallet.consumer.path", path)
+                    .tag("wallet.consumer.poll.size", records.size());
+                if (i >= applied) {
+                    span.tag("redelivered", true);
+                }
+                span.end();
+            }
+        }
+    }
+
+    // one clock read per poll; records without a producer timestamp are skipped
+    private void recordAge(List<ConsumerRecord<String, TransactionEvent>> applied) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<String, TransactionEvent> record : applied) {
+            if (record.timestamp() >= 0) {
+                eventAge.record(Math.max(0, now - record.timestamp()), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static Timer pollTimer(String path, MeterRegistry meterRegistry) {
+        return Timer.builder("wallet.consumer.poll")
+                .description("Time to apply one poll of transfer events and ack its replies")
+                .tag("path", path)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static TransferInstruction toInstruction(ConsumerRecord<String, TransactionEvent> record) {
+        TransactionEvent event = record.value();
+        UUID transactionId = TransactionEvents.transactionId(event);
+        if (transactionId == null) {
+            // name-based (version 3), so it can never collide with a transaction-service id
+            transactionId = UUID.nameUUIDFromBytes((record.topic() + "-" + record.partition() + "@" + record.offset())
+                .getBytes(StandardCharsets.UTF_8));
+        }
+        return new TransferInstruction(transactionId, TransactionEvents.senderId(event),
+            TransactionEvents.receiverId(event), TransactionEvents.amount(event));
+    }
+
+    // events published before transaction ids were added carry no reply address
+    private static boolean hasReplyAddress(ConsumerRecord<String, TransactionEvent> record) {
+        return TransactionEvents.transactionId(record.value()) != null;
     }
 
-    @KafkaListener(topics = "transactions", groupId = "wallet-group")
-    public void handleTransaction(TransactionEvent event) {
-        walletService.applyTransaction(event.getSenderId(), event.getReceiverId(), event.getAmount());
+    // producers key by sender; older unkeyed records fall back to the sender in the payload
+    private static String walletKey(ConsumerRecord<String, TransactionEvent> record) {
+        if (record.key() != null) {
+            return record.key();
+        }
+        return record.value() == null ? null : TransactionEvents.senderId(record.value()).toString();
     }
 }
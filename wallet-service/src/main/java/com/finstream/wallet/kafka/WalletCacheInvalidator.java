@@ -0,0 +1,200 @@
+package com.finstream.wallet.kafka;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finstream.common.events.TransactionEvent;
+import com.finstream.common.events.TransactionEventDeserializer;
+import com.finstream.common.events.TransactionEvents;
+import com.finstream.wallet.dto.TransactionResultEvent;
+import com.finstream.wallet.service.WalletBalanceCache;
+
+/**
+ * Drops wallets from this replica's balance cache when any replica moves their money.
+ * <ul>
+ * <li>{@code transactions}: the transaction-service publishes a transfer only after
+ * ReserveFunds has committed the sender's hold, so the sender is invalidated here.</li>
+ * <li>{@code transaction-results}: published after a transfer is applied, rejected
+ * included (a failed capture puts the hold back), so both wallets are invalidated.</li>
+ * </ul>
+ * Every replica needs every event, so this is not a consumer group member: it assigns
+ * itself all partitions of both topics, starts at the end (a fresh replica's cache is
+ * empty, so there is nothing older to invalidate) and commits nothing. The broker keeps no
+ * state for it, however often replicas restart. Partitions added later are picked up on
+ * the next refresh. Releases of holds publish nothing and are left to the cache's ttl.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class WalletCacheInvalidator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletCacheInvalidator.class);
+
+    static final String TRANSACTIONS_TOPIC = "transactions";
+    static final String RESULTS_TOPIC = "transaction-results";
+    private static final List<String> TOPICS = List.of(TRANSACTIONS_TOPIC, RESULTS_TOPIC);
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration METADATA_TIMEOUT = Duration.ofSeconds(5);
+
+    private final WalletBalanceCache balanceCache;
+    private final KafkaProperties kafkaProperties;
+    private final ObjectMapper objectMapper;
+    private final TransactionEventDeserializer eventDeserializer = new TransactionEventDeserializer();
+    private final Set<TopicPartition> assigned = new HashSet<>();
+
+    @Value("${wallet.cache.invalidation.partition-refresh-ms:60000}")
+    private long partitionRefreshMs;
+
+    private volatile boolean running;
+    private KafkaConsumer<String, byte[]> consumer;
+    private Thread thread;
+
+    public WalletCacheInvalidator(WalletBalanceCache balanceCache, KafkaProperties kafkaProperties,
+                                  ObjectMapper objectMapper) {
+        this.balanceCache = balanceCache;
+        this.kafkaProperties = kafkaProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void start() {
+        Map<String, Object> config = kafkaProperties.buildConsumerProperties(null);
+        // the listener's group and deserializers don't apply here
+        config.keySet().removeIf(key -> key.startsWith("spring."));
+        config.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        config.put(ConsumerConfig.CLIENT_ID_CONFIG, "wallet-cache-invalidator");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        // looking a topic up must not create it with the broker's default partition count
+        config.put(ConsumerConfig.ALLOW_AUTO_CREATE_TOPICS_CONFIG, false);
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumer = new KafkaConsumer<>(config);
+        running = true;
+        thread = new Thread(this::run, "wallet-cache-invalidator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        consumer.wakeup();
+        try {
+            thread.join(POLL_TIMEOUT.multipliedBy(5).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        long nextRefresh = System.nanoTime();
+        try {
+            while (running) {
+                try {
+                    if (System.nanoTime() - nextRefresh >= 0) {
+                        assignNewPartitions();
+                        nextRefresh = System.nanoTime() + partitionRefreshMs * 1_000_000L;
+                    }
+                    if (assigned.isEmpty()) {
+                        Thread.sleep(POLL_TIMEOUT.toMillis());
+                        continue;
+                    }
+                    for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                        invalidate(record);
+                    }
+                } catch (WakeupException e) {
+                    // stop() was called
+                } catch (KafkaException e) {
+                    log.warn("Cache invalidation poll failed, retrying: {}", e.getMessage());
+                    Thread.sleep(POLL_TIMEOUT.toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            consumer.close(POLL_TIMEOUT);
+        }
+    }
+
+    private void assignNewPartitions() {
+        List<TopicPartition> added = new ArrayList<>();
+        for (String topic : TOPICS) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(topic, METADATA_TIMEOUT);
+            if (partitions == null) {
+                continue;
+            }
+            for (PartitionInfo partition : partitions) {
+                TopicPartition topicPartition = new TopicPartition(topic, partition.partition());
+                if (!assigned.contains(topicPartition)) {
+                    added.add(topicPartition);
+                }
+            }
+        }
+        if (added.isEmpty()) {
+            return;
+        }
+        assigned.addAll(added);
+        consumer.assign(assigned);
+        consumer.seekToEnd(added);
+        log.info("Balance cache invalidation now follows {} partitions", assigned.size());
+    }
+
+    void invalidate(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            return;
+        }
+        try {
+            if (TRANSACTIONS_TOPIC.equals(record.topic())) {
+                TransactionEvent event = eventDeserializer.deserialize(record.topic(), record.headers(), record.value());
+                balanceCache.invalidate(TransactionEvents.senderId(event));
+            } else {
+                TransactionResultEvent result = objectMapper.readValue(record.value(), TransactionResultEvent.class);
+                // results published before the wallet ids were added carry none
+                invalidate(result.getSenderId());
+                invalidate(result.getReceiverId());
+            }
+        } catch (SerializationException | IOException | IllegalArgumentException e) {
+            log.debug("Skipping unreadable record at {}-{}@{}: {}",
+                record.topic(), record.partition(), record.offset(), e.getMessage());
+        }
+    }
+
+    private void invalidate(UUID userId) {
+        if (userId != null) {
+            balanceCache.invalidate(userId);
+        }
+    }
+}
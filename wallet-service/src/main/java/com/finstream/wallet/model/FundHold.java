@@ -0,0 +1,55 @@
+package com.finstream.wallet.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import jakarta.persistence.*;
+
+/**
+ * Funds taken out of a sender's balance by ReserveFunds, keyed by the transaction-service
+ * id. The Kafka apply captures the hold (credits the receiver) and ReleaseFunds puts the
+ * money back. A RELEASED row with no user is a tombstone for a release that arrived
+ * before its reservation, so a late reservation can't take the funds.
+ */
+@Entity
+@Table(name = "fund_holds")
+public class FundHold {
+    @Id
+    private UUID transactionId;
+
+    private UUID userId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public FundHold() {}
+
+    public FundHold(UUID transactionId, UUID userId, BigDecimal amount, HoldStatus status) {
+        this.transactionId = transactionId;
+        this.userId = userId;
+        this.amount = amount;
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public HoldStatus getStatus() { return status; }
+    public void setStatus(HoldStatus status) {
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,5 @@
+package com.finstream.wallet.model;
+
+public enum HoldStatus {
+    HELD, CAPTURED, RELEASED
+}
@@ -0,0 +1,72 @@
+package com.finstream.wallet.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import jakarta.persistence.*;
+
+/**
+ * One immutable balance movement: negative for a debit, positive for a credit. A transfer
+ * posts a balanced pair under its transaction id; a reserved transfer posts HOLD on the
+ * sender and later CAPTURE on the receiver (or RELEASE back to the sender). A debit from a
+ * striped wallet may be split over several stripes. The Kafka consumer nets a poll's
+ * movements, so one of its rows may be the sum of several transfers into a stripe. Rows are never updated or deleted; a
+ * stripe's balance is its snapshot plus the entries after it.
+ */
+@Entity
+@Table(name = "ledger_entries", indexes = {
+    @Index(name = "idx_ledger_user_id_stripe_id", columnList = "userId, stripe, id")
+})
+public class LedgerEntry {
+    // identity (one nextval per insert, no cache): an entry written after a compaction
+    // always gets a higher id than the position that compaction recorded
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    // 0 for the wallets row, 1..N for a WalletStripe
+    @Column(columnDefinition = "integer not null default 0")
+    private int stripe;
+
+    // null on a row netting several transfers, and on old rows from events without a transaction id
+    private UUID transactionId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LedgerEntryKind kind;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public LedgerEntry() {}
+
+    public LedgerEntry(UUID userId, int stripe, UUID transactionId, BigDecimal amount, LedgerEntryKind kind) {
+        this.userId = userId;
+        this.stripe = stripe;
+        this.transactionId = transactionId;
+        this.amount = amount;
+        this.kind = kind;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public int getStripe() { return stripe; }
+    public void setStripe(int stripe) { this.stripe = stripe; }
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public LedgerEntryKind getKind() { return kind; }
+    public void setKind(LedgerEntryKind kind) { this.kind = kind; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,8 @@
+package com.finstream.wallet.model;
+
+public enum LedgerEntryKind {
+    TRANSFER,
+    HOLD,
+    CAPTURE,
+    RELEASE
+}
@@ -0,0 +1,60 @@
+package com.finstream.wallet.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Outcome of a transfer event, keyed by the transaction-service id. Written in the
+ * same DB transaction as the balance change so a redelivered event is recognised
+ * and its original result re-published instead of being applied twice.
+ */
+@Entity
+@Table(name = "processed_transfers")
+public class ProcessedTransfer implements Persistable<UUID> {
+    @Id
+    private UUID transactionId;
+
+    @Column(nullable = false)
+    private boolean applied;
+
+    private String reason;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+
+    // the id is assigned, so tell Spring Data which rows are new: save() then persists
+    // (and JDBC-batches) instead of merging, which would SELECT each row first
+    @Transient
+    private boolean isNew = true;
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    public ProcessedTransfer() {}
+
+    public ProcessedTransfer(UUID transactionId, boolean applied, String reason) {
+        this.transactionId = transactionId;
+        this.applied = applied;
+        this.reason = reason;
+        this.processedAt = LocalDateTime.now();
+    }
+
+    @Override
+    public UUID getId() { return transactionId; }
+    @Override
+    public boolean isNew() { return isNew; }
+
+    public UUID getTransactionId() { return transactionId; }
+    public void setTransactionId(UUID transactionId) { this.transactionId = transactionId; }
+    public boolean isApplied() { return applied; }
+    public void setApplied(boolean applied) { this.applied = applied; }
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
@@ -1,6 +1,7 @@
 package com.finstream.wallet.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 import java.math.BigDecimal;
 import java.util.UUID;
 
@@ -14,8 +15,28 @@ public class Wallet {
     @Column(unique = true)
     private UUID userId;
 
+    // snapshot: the balance as of ledgerPosition; only the opening balance and the
+    // ledger compactor write it, transfers append ledger entries instead
     private BigDecimal balance;
 
+    // id of the last stripe-0 ledger entry folded into balance
+    @Column(columnDefinition = "bigint not null default 0")
+    private long ledgerPosition;
+
+    // 1 = unstriped (stripe 0, this row); N > 1 = funds live in WalletStripe rows 1..N
+    @Column(columnDefinition = "integer not null default 1")
+    private int stripes = 1;
+
+    // snapshot plus ledger tail, summed over this row and any stripes; computed by the
+    // database on load (read-only)
+    @Formula("balance + coalesce((select sum(e.amount) from ledger_entries e "
+        + "where e.user_id = user_id and e.stripe = 0 and e.id > ledger_position), 0) "
+        + "+ coalesce((select sum(s.balance) from wallet_stripes s where s.user_id = user_id), 0) "
+        + "+ coalesce((select sum(x.amount) from wallet_stripes s join ledger_entries x "
+        + "on x.user_id = s.user_id and x.stripe = s.stripe and x.id > s.ledger_position "
+        + "where s.user_id = user_id), 0)")
+    private BigDecimal currentBalance;
+
     private String currency;
 
     public Wallet() {}
@@ -26,6 +47,11 @@ public class Wallet {
     public void setUserId(UUID userId) { this.userId = userId; }
     public BigDecimal getBalance() { return balance; }
     public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public long getLedgerPosition() { return ledgerPosition; }
+    public void setLedgerPosition(long ledgerPosition) { this.ledgerPosition = ledgerPosition; }
+    public int getStripes() { return stripes; }
+    public void setStripes(int stripes) { this.stripes = stripes; }
+    public BigDecimal getCurrentBalance() { return currentBalance != null ? currentBalance : balance; }
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
-}
\ No newline at end of file
+}
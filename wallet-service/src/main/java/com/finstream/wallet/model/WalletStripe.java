@@ -0,0 +1,46 @@
+package com.finstream.wallet.model;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import jakarta.persistence.*;
+
+/**
+ * One sub-balance of a hot wallet. Once a wallet is striped its funds are spread over
+ * stripes 1..N, each with its own snapshot, ledger position and row lock, so credits and
+ * debits spread over N rows instead of queueing on one. The wallet balance is the sum.
+ */
+@Entity
+@Table(name = "wallet_stripes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_wallet_stripes_user_id_stripe", columnNames = {"userId", "stripe"})
+})
+public class WalletStripe {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+
+    // id of the last ledger entry for this stripe folded into balance
+    @Column(nullable = false)
+    private long ledgerPosition;
+
+    public WalletStripe() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public int getStripe() { return stripe; }
+    public void setStripe(int stripe) { this.stripe = stripe; }
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public long getLedgerPosition() { return ledgerPosition; }
+    public void setLedgerPosition(long ledgerPosition) { this.ledgerPosition = ledgerPosition; }
+}
@@ -0,0 +1,23 @@
+package com.finstream.wallet.repository;
+
+import com.finstream.wallet.model.FundHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface FundHoldRepository extends JpaRepository<FundHold, UUID> {
+
+    // capture and release both lock the hold first so they can't both win
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM FundHold h WHERE h.transactionId = :transactionId")
+    Optional<FundHold> findForUpdate(UUID transactionId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM FundHold h WHERE h.transactionId IN :transactionIds")
+    List<FundHold> findAllForUpdate(Collection<UUID> transactionIds);
+}
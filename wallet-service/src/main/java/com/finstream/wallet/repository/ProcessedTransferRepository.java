@@ -0,0 +1,8 @@
+package com.finstream.wallet.repository;
+
+import com.finstream.wallet.model.ProcessedTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.UUID;
+
+public interface ProcessedTransferRepository extends JpaRepository<ProcessedTransfer, UUID> {
+}
@@ -0,0 +1,13 @@
+package com.finstream.wallet.security;
+
+/**
+ * Thrown when the password-hashing pool is saturated. Controllers map it to 503 so
+ * clients back off instead of queueing more CPU-bound work behind it.
+ */
+public class HashingBusyException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public HashingBusyException(String message) {
+        super(message);
+    }
+}
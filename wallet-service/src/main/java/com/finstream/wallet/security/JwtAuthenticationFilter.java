@@ -6,6 +6,8 @@ import java.util.Arrays;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.finstream.common.auth.IdentityHeader;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -15,10 +17,12 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
+    private final JwtVerifier jwtVerifier;
+    private final IdentityHeader identityHeader;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier, IdentityHeader identityHeader) {
+        this.jwtVerifier = jwtVerifier;
+        this.identityHeader = identityHeader;
     }
 
     @Override
@@ -32,6 +36,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // the gateway already verified the token; its signed header is enough
+        String identity = request.getHeader(IdentityHeader.NAME);
+        if (identity != null) {
+            String userId = identityHeader.verify(identity, System.currentTimeMillis());
+            if (userId == null) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.getWriter().write("{\"error\":\"Invalid or expired identity\"}");
+                return;
+            }
+            request.setAttribute("userId", userId);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // called directly, not through the gateway
         String token = extractTokenFromCookie(request);
         
         if (token == null) {
@@ -40,15 +59,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (!jwtUtil.validateToken(token)) {
+        JwtVerifier.VerifiedToken verified = jwtVerifier.verify(token);
+        if (verified == null) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("{\"error\":\"Invalid or expired token\"}");
             return;
         }
 
         // valid token -> add userId to request
-        String userId = jwtUtil.extractUserId(token);
-        request.setAttribute("userId", userId);
+        request.setAttribute("userId", verified.userId());
 
         filterChain.doFilter(request, response);
     }
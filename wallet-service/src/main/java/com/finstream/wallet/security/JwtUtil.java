@@ -1,6 +1,7 @@
 package com.finstream.wallet.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,14 +18,16 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret:your-256-bit-secret-key-change-this-in-production-please-make-it-long-enough}")
-    private String secret;
+    // the key and parser are immutable and thread-safe, so they are built once
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long expiration;
 
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    public JwtUtil(@Value("${jwt.secret:your-256-bit-secret-key-change-this-in-production-please-make-it-long-enough}") String secret,
+                   @Value("${jwt.expiration:86400000}") long expiration) { // 24 hours in milliseconds
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
     }
 
     public String extractUserId(String token) {
@@ -36,20 +39,17 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifies the signature and expiry and returns the claims, in one parse. Throws
+     * {@link io.jsonwebtoken.JwtException} (or IllegalArgumentException for a blank token)
+     * if the token is not valid.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(UUID userId, String email) {
@@ -64,18 +64,19 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Boolean validateToken(String token, UUID userId) {
-        final String extractedUserId = extractUserId(token);
-        return (extractedUserId.equals(userId.toString()) && !isTokenExpired(token));
+        // the parser rejects expired tokens
+        return extractUserId(token).equals(userId.toString());
     }
 
     public Boolean validateToken(String token) {
         try {
-            return !isTokenExpired(token);
+            parseClaims(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,96 @@
+package com.finstream.wallet.security;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.finstream.common.auth.TokenCache;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Verifies auth tokens for the request filter: one signature check and one claims
+ * parse per token, after which the result is remembered in a {@link TokenCache} until
+ * the token expires or {@code jwt.cache.ttl-ms} passes, whichever comes first. A
+ * session's repeat requests then cost a SHA-256 of the token and a map lookup, with no
+ * HMAC and no JSON.
+ */
+@Component
+public class JwtVerifier {
+
+    private final JwtUtil jwtUtil;
+    private final TokenCache<VerifiedToken> cache;
+
+    private final boolean enabled;
+    private final long ttlMs;
+
+    private final Counter cached;
+    private final Counter verified;
+    private final Counter rejected;
+
+    public JwtVerifier(JwtUtil jwtUtil,
+                       @Value("${jwt.cache.enabled:true}") boolean enabled,
+                       @Value("${jwt.cache.max-size:50000}") int maxSize,
+                       @Value("${jwt.cache.ttl-ms:300000}") long ttlMs,
+                       MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.cache = new TokenCache<>(maxSize);
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.cached = Counter.builder("jwt.verifications").tag("result", "cached")
+                .description("Tokens accepted from the verified-token cache")
+                .register(meterRegistry);
+        this.verified = Counter.builder("jwt.verifications").tag("result", "verified")
+                .description("Tokens whose signature and claims were checked")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("jwt.verifications").tag("result", "rejected")
+                .description("Tokens that failed verification")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", cache, TokenCache::size)
+                .description("Verified tokens currently cached")
+                .register(meterRegistry);
+    }
+
+    /** The token's subject and expiry if it is valid, otherwise null. */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            rejected.increment();
+            return null;
+        }
+        if (!enabled) {
+            return parse(token);
+        }
+        long now = System.currentTimeMillis();
+        TokenCache.Key key = TokenCache.key(token);
+        VerifiedToken hit = cache.get(key, now);
+        if (hit != null) {
+            cached.increment();
+            return hit;
+        }
+        VerifiedToken result = parse(token);
+        if (result != null) {
+            cache.put(key, result, Math.min(result.expiresAtMillis(), now + ttlMs), now);
+        }
+        return result;
+    }
+
+    private VerifiedToken parse(String token) {
+        try {
+            Claims claims = jwtUtil.parseClaims(token);
+            Date expiration = claims.getExpiration();
+            verified.increment();
+            return new VerifiedToken(claims.getSubject(), expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        } catch (RuntimeException e) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    /** A verified token's subject (the user id) and expiry. */
+    public record VerifiedToken(String userId, long expiresAtMillis) {
+    }
+}
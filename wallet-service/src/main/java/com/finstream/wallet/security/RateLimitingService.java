@@ -1,36 +0,0 @@
-package com.finstream.wallet.security;
-
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-import org.springframework.stereotype.Service;
-
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-
-@Service
-public class RateLimitingService {
-
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
-
-    public Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
-    }
-
-    private Bucket createNewBucket() {
-        // Allow 10 requests per minute
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(10)
-                .refillGreedy(10, Duration.ofMinutes(1))
-                .build();
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
-    }
-
-    public boolean tryConsume(String key) {
-        Bucket bucket = resolveBucket(key);
-        return bucket.tryConsume(1);
-    }
-}
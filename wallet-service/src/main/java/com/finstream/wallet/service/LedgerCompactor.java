@@ -0,0 +1,94 @@
+package com.finstream.wallet.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Rolls ledger tails into the wallet and stripe snapshots so a balance read never sums more
+ * than roughly one interval's worth of entries. Each batch is its own short transaction; the
+ * rows it locks wait for in-flight movements and hold up new ones only while the batch runs.
+ * Ledger rows themselves are kept. The entries folded per wallet in a run are the traffic
+ * signal {@link WalletStripeManager} uses to stripe or unstripe wallets.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.ledger.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerCompactor.class);
+
+    private final LedgerService ledgerService;
+    private final WalletStripeManager stripeManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter compactedCounter;
+    private final Timer batchTimer;
+
+    @Value("${wallet.ledger.compaction.batch-size:200}")
+    private int batchSize;
+
+    @Value("${wallet.ledger.compaction.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    public LedgerCompactor(LedgerService ledgerService, WalletStripeManager stripeManager,
+                           TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.ledgerService = ledgerService;
+        this.stripeManager = stripeManager;
+        this.transactionTemplate = transactionTemplate;
+        this.compactedCounter = Counter.builder("wallet.ledger.compacted")
+                .description("Ledger entries folded into snapshots by the compactor")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("wallet.ledger.compaction.batch")
+                .description("Time to lock and fold one batch of wallets")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.ledger.compaction.interval-ms:5000}")
+    public void compact() {
+        try {
+            Map<UUID, Integer> folded = new HashMap<>();
+            drain(ledgerService::findUncompacted, ledgerService::compact, folded);
+            drain(ledgerService::findUncompactedStripes, ledgerService::compactStripes, folded);
+            stripeManager.adjust(folded);
+        } catch (Exception e) {
+            log.error("Ledger compaction failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void drain(Function<Integer, List<UUID>> find, Function<List<UUID>, Map<UUID, Integer>> fold,
+                       Map<UUID, Integer> folded) {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<UUID> userIds = find.apply(batchSize);
+            if (userIds.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Map<UUID, Integer> batch = transactionTemplate.execute(status -> fold.apply(userIds));
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (batch != null) {
+                batch.forEach((userId, entries) -> {
+                    folded.merge(userId, entries, Integer::sum);
+                    compactedCounter.increment(entries);
+                });
+            }
+            if (userIds.size() < batchSize) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.finstream.wallet.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.finstream.wallet.model.LedgerEntry;
+import com.finstream.wallet.model.LedgerEntryKind;
+
+/**
+ * Balance reads and writes over the append-only ledger. A balance is a snapshot plus the
+ * ledger entries after its position. An unstriped wallet has one snapshot on its wallets
+ * row (stripe 0); a striped one has a snapshot per wallet_stripes row (stripes 1..N).
+ * Movements only ever INSERT ledger rows; snapshots are rewritten by {@link LedgerCompactor}
+ * and {@link #restripe}.
+ * <p>
+ * Row lock modes, on the wallets row or on one stripe row:
+ * <ul>
+ *   <li>credits: FOR KEY SHARE, so any number of credits into one stripe run side by side</li>
+ *   <li>debits: FOR NO KEY UPDATE, so debits of one stripe queue and each sees the last one's
+ *       entry, while credits still go through</li>
+ *   <li>compaction and restriping: FOR UPDATE, which waits for every in-flight movement</li>
+ * </ul>
+ * Lock order, used everywhere: wallets rows before stripe rows, each by user_id, then
+ * stripe. A debit sweeping extra stripes only waits for higher stripes than the ones it
+ * holds and skips locked lower ones. Movements on striped wallets never lock the wallets
+ * row; they read the stripe count unlocked and start over if a restripe moved it (that
+ * retry can break the order; it is rare, and Postgres' deadlock detection settles it).
+ * All methods must run inside the caller's transaction.
+ */
+@Service
+public class LedgerService {
+
+    private static final int LAYOUT_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Unlocked read of the wallet's stripe count: 0 if it doesn't exist, 1 if unstriped. */
+    public int stripeCount(UUID userId) {
+        List<Integer> rows = jdbcTemplate.queryForList("SELECT stripes FROM wallets WHERE user_id = ?", Integer.class, userId);
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    /** Whether wallet a must be locked before wallet b, given their stripe counts. */
+    public static boolean locksBefore(UUID a, int aStripes, UUID b, int bStripes) {
+        boolean aStriped = aStripes > 1;
+        boolean bStriped = bStripes > 1;
+        if (aStriped != bStriped) {
+            return !aStriped;
+        }
+        return compareIds(a, b) < 0;
+    }
+
+    /**
+     * Locks enough of the wallet to debit the amount and returns those stripes' balances;
+     * null if the wallet doesn't exist. A striped wallet starts at the stripe picked by the
+     * transaction id and sweeps the others only if that one is short. The result may not
+     * cover the amount; {@link StripedBalance#debit} decides.
+     */
+    public StripedBalance lockForDebit(UUID userId, int stripes, UUID transactionId, BigDecimal amount) {
+        for (int attempt = 0; attempt < LAYOUT_ATTEMPTS; attempt++) {
+            if (stripes == 0) {
+                return null;
+            }
+            if (stripes == 1) {
+                List<Integer> layout = new ArrayList<>(1);
+                List<Snapshot> row = jdbcTemplate.query(
+                    "SELECT stripes, balance, ledger_position FROM wallets WHERE user_id = ? FOR NO KEY UPDATE",
+                    (rs, i) -> {
+                        layout.add(rs.getInt(1));
+                        return new Snapshot(0, rs.getBigDecimal(2), rs.getLong(3));
+                    }, userId);
+                if (row.isEmpty()) {
+                    return null;
+                }
+                if (layout.get(0) == 1) {
+                    return withTails(userId, row);
+                }
+                // striped while we waited for the lock
+                stripes = layout.get(0);
+                continue;
+            } else {
+                int first = 1 + slot(transactionId, stripes);
+                List<Snapshot> locked = new ArrayList<>(lockStripes(userId, first, first, false));
+                if (!locked.isEmpty()) {
+                    StripedBalance balance = withTails(userId, locked);
+                    if (balance.total().compareTo(amount) >= 0) {
+                        return balance;
+                    }
+                    locked.addAll(lockStripes(userId, first + 1, stripes, false));
+                    // a wait here could close a cycle with another sweep, so busy lower stripes are skipped
+                    locked.addAll(lockStripes(userId, 1, first - 1, true));
+                    return withTails(userId, locked);
+                }
+            }
+            // the stripe is gone: restriped since the count was read
+            stripes = stripeCount(userId);
+        }
+        throw new IllegalStateException("Stripe layout of wallet " + userId + " kept changing");
+    }
+
+    /** Locks one stripe of the wallet for a credit and returns it; null if the wallet doesn't exist. */
+    public Integer lockForCredit(UUID userId, int stripes, UUID transactionId) {
+        for (int attempt = 0; attempt < LAYOUT_ATTEMPTS; attempt++) {
+            if (stripes == 0) {
+                return null;
+            }
+            if (stripes == 1) {
+                List<Integer> row = jdbcTemplate.queryForList(
+                    "SELECT stripes FROM wallets WHERE user_id = ? FOR KEY SHARE", Integer.class, userId);
+                if (row.isEmpty()) {
+                    return null;
+                }
+                if (row.get(0) == 1) {
+                    return 0;
+                }
+                stripes = row.get(0);
+                continue;
+            } else {
+                int stripe = 1 + slot(transactionId, stripes);
+                if (!jdbcTemplate.queryForList("SELECT 1 FROM wallet_stripes WHERE user_id = ? AND stripe = ? FOR KEY SHARE",
+                        Integer.class, userId, stripe).isEmpty()) {
+                    return stripe;
+                }
+            }
+            stripes = stripeCount(userId);
+        }
+        throw new IllegalStateException("Stripe layout of wallet " + userId + " kept changing");
+    }
+
+    // convenience for single-wallet movements (holds): null once posted, else the reason
+    public String debit(UUID userId, UUID transactionId, BigDecimal amount, LedgerEntryKind kind) {
+        StripedBalance balance = lockForDebit(userId, stripeCount(userId), transactionId, amount);
+        if (balance == null) {
+            return "Wallet not found";
+        }
+        List<LedgerEntry> entries = balance.debit(transactionId, amount, kind);
+        if (entries == null) {
+            return "Insufficient balance";
+        }
+        append(entries);
+        return null;
+    }
+
+    // returns false if the wallet does not exist
+    public boolean credit(UUID userId, UUID transactionId, BigDecimal amount, LedgerEntryKind kind) {
+        Integer stripe = lockForCredit(userId, stripeCount(userId), transactionId);
+        if (stripe == null) {
+            return false;
+        }
+        append(List.of(new LedgerEntry(userId, stripe, transactionId, amount, kind)));
+        return true;
+    }
+
+    /**
+     * Locks every stripe of the wallets for debiting and returns their balances (batch
+     * apply). Taking the wallets rows as well keeps the stripe layout fixed until commit.
+     * Missing wallets are absent from the map.
+     */
+    public Map<UUID, StripedBalance> lockBalances(Collection<UUID> userIds) {
+        Map<UUID, List<Snapshot>> snapshots = new LinkedHashMap<>();
+        List<UUID> striped = new ArrayList<>();
+        jdbcTemplate.query(
+            "SELECT user_id, stripes, balance, ledger_position FROM wallets WHERE user_id = ANY(?) ORDER BY user_id FOR NO KEY UPDATE",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())),
+            rs -> {
+                UUID userId = rs.getObject(1, UUID.class);
+                List<Snapshot> list = new ArrayList<>(1);
+                if (rs.getInt(2) > 1) {
+                    striped.add(userId);
+                } else {
+                    list.add(new Snapshot(0, rs.getBigDecimal(3), rs.getLong(4)));
+                }
+                snapshots.put(userId, list);
+            });
+        if (!striped.isEmpty()) {
+            jdbcTemplate.query(
+                "SELECT user_id, stripe, balance, ledger_position FROM wallet_stripes WHERE user_id = ANY(?) "
+                    + "ORDER BY user_id, stripe FOR NO KEY UPDATE",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", striped.toArray())),
+                rs -> {
+                    snapshots.get(rs.getObject(1, UUID.class))
+                        .add(new Snapshot(rs.getInt(2), rs.getBigDecimal(3), rs.getLong(4)));
+                });
+        }
+        if (snapshots.isEmpty()) {
+            return Map.of();
+        }
+
+        // a separate statement, so its snapshot includes whatever the previous lock holders committed
+        Map<UUID, Map<Integer, BigDecimal>> tails = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT e.user_id, e.stripe, sum(e.amount) FROM ledger_entries e "
+                + "JOIN wallets w ON w.user_id = e.user_id "
+                + "LEFT JOIN wallet_stripes s ON s.user_id = e.user_id AND s.stripe = e.stripe "
+                + "WHERE e.user_id = ANY(?) AND e.id > CASE WHEN e.stripe = 0 THEN w.ledger_position ELSE s.ledger_position END "
+                + "GROUP BY e.user_id, e.stripe",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", snapshots.keySet().toArray())),
+            rs -> {
+                tails.computeIfAbsent(rs.getObject(1, UUID.class), k -> new HashMap<>()).put(rs.getInt(2), rs.getBigDecimal(3));
+            });
+
+        Map<UUID, StripedBalance> balances = new HashMap<>(snapshots.size() * 2);
+        snapshots.forEach((userId, list) -> balances.put(userId, toBalance(userId, list, tails.getOrDefault(userId, Map.of()))));
+        return balances;
+    }
+
+    /** Inserts the entries with one statement. */
+    public void append(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<UUID> userIds = new ArrayList<>(entries.size());
+        List<Integer> stripes = new ArrayList<>(entries.size());
+        List<UUID> transactionIds = new ArrayList<>(entries.size());
+        List<BigDecimal> amounts = new ArrayList<>(entries.size());
+        List<String> kinds = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            userIds.add(entry.getUserId());
+            stripes.add(entry.getStripe());
+            transactionIds.add(entry.getTransactionId());
+            amounts.add(entry.getAmount());
+            kinds.add(entry.getKind().name());
+        }
+        jdbcTemplate.update(
+            "INSERT INTO ledger_entries (user_id, stripe, transaction_id, amount, kind, created_at) "
+                + "SELECT d.user_id, d.stripe, d.transaction_id, d.amount, d.kind, now() "
+                + "FROM unnest(?, ?, ?, ?, ?) AS d(user_id, stripe, transaction_id, amount, kind)",
+            ps -> {
+                Array users = ps.getConnection().createArrayOf("uuid", userIds.toArray());
+                Array stripeNumbers = ps.getConnection().createArrayOf("int4", stripes.toArray());
+                Array transactions = ps.getConnection().createArrayOf("uuid", transactionIds.toArray());
+                Array values = ps.getConnection().createArrayOf("numeric", amounts.toArray());
+                Array kindNames = ps.getConnection().createArrayOf("varchar", kinds.toArray());
+                ps.setArray(1, users);
+                ps.setArray(2, stripeNumbers);
+                ps.setArray(3, transactions);
+                ps.setArray(4, values);
+                ps.setArray(5, kindNames);
+            });
+    }
+
+    /** Wallets with stripe-0 entries past their snapshot, lowest user_id first. */
+    public List<UUID> findUncompacted(int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT w.user_id FROM wallets w WHERE EXISTS (SELECT 1 FROM ledger_entries e "
+                + "WHERE e.user_id = w.user_id AND e.stripe = 0 AND e.id > w.ledger_position) ORDER BY w.user_id LIMIT ?",
+            UUID.class, limit);
+    }
+
+    /** Striped wallets with a stripe that has entries past its snapshot. */
+    public List<UUID> findUncompactedStripes(int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT DISTINCT s.user_id FROM wallet_stripes s WHERE EXISTS (SELECT 1 FROM ledger_entries e "
+                + "WHERE e.user_id = s.user_id AND e.stripe = s.stripe AND e.id > s.ledger_position) ORDER BY s.user_id LIMIT ?",
+            UUID.class, limit);
+    }
+
+    /**
+     * Folds each wallet's stripe-0 ledger tail into its snapshot. Returns the number of
+     * entries folded per wallet.
+     */
+    public Map<UUID, Integer> compact(Collection<UUID> userIds) {
+        jdbcTemplate.query(
+            "SELECT user_id FROM wallets WHERE user_id = ANY(?) ORDER BY user_id FOR UPDATE",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())),
+            rs -> { });
+        // new statement after the locks: every entry for these wallets is committed and visible
+        return foldedCounts(
+            "UPDATE wallets w SET balance = w.balance + t.delta, ledger_position = t.last_id "
+                + "FROM (SELECT e.user_id, sum(e.amount) AS delta, max(e.id) AS last_id, count(*) AS entries "
+                + "FROM ledger_entries e JOIN wallets p ON p.user_id = e.user_id "
+                + "WHERE e.user_id = ANY(?) AND e.stripe = 0 AND e.id > p.ledger_position GROUP BY e.user_id) t "
+                + "WHERE w.user_id = t.user_id RETURNING w.user_id, t.entries",
+            userIds);
+    }
+
+    /** Same as {@link #compact} for every stripe of the given striped wallets. */
+    public Map<UUID, Integer> compactStripes(Collection<UUID> userIds) {
+        jdbcTemplate.query(
+            "SELECT user_id FROM wallet_stripes WHERE user_id = ANY(?) ORDER BY user_id, stripe FOR UPDATE",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())),
+            rs -> { });
+        return foldedCounts(
+            "UPDATE wallet_stripes s SET balance = s.balance + t.delta, ledger_position = t.last_id "
+                + "FROM (SELECT e.user_id, e.stripe, sum(e.amount) AS delta, max(e.id) AS last_id, count(*) AS entries "
+                + "FROM ledger_entries e JOIN wallet_stripes p ON p.user_id = e.user_id AND p.stripe = e.stripe "
+                + "WHERE e.user_id = ANY(?) AND e.id > p.ledger_position GROUP BY e.user_id, e.stripe) t "
+                + "WHERE s.user_id = t.user_id AND s.stripe = t.stripe RETURNING s.user_id, t.entries",
+            userIds);
+    }
+
+    private Map<UUID, Integer> foldedCounts(String sql, Collection<UUID> userIds) {
+        Map<UUID, Integer> folded = new HashMap<>();
+        jdbcTemplate.query(sql,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())),
+            rs -> {
+                folded.merge(rs.getObject(1, UUID.class), rs.getInt(2), Integer::sum);
+            });
+        return folded;
+    }
+
+    /** Striped wallets and their stripe counts. */
+    public Map<UUID, Integer> findStriped() {
+        Map<UUID, Integer> striped = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, stripes FROM wallets WHERE stripes > 1",
+            rs -> {
+                striped.put(rs.getObject(1, UUID.class), rs.getInt(2));
+            });
+        return striped;
+    }
+
+    /**
+     * Re-lays the wallet out over the given number of stripes (1 = unstriped). Everything is
+     * locked and folded into one total, which is then spread evenly over the new stripes;
+     * the total is unchanged, so no ledger entries are written. Returns false if the wallet
+     * doesn't exist or already has that layout.
+     */
+    public boolean restripe(UUID userId, int stripes) {
+        List<Integer> current = jdbcTemplate.queryForList(
+            "SELECT stripes FROM wallets WHERE user_id = ? FOR UPDATE", Integer.class, userId);
+        if (current.isEmpty() || current.get(0) == stripes) {
+            return false;
+        }
+        jdbcTemplate.query("SELECT stripe FROM wallet_stripes WHERE user_id = ? ORDER BY stripe FOR UPDATE",
+            rs -> { }, userId);
+
+        BigDecimal total = jdbcTemplate.queryForObject(
+            "SELECT w.balance "
+                + "+ coalesce((SELECT sum(e.amount) FROM ledger_entries e "
+                + "WHERE e.user_id = w.user_id AND e.stripe = 0 AND e.id > w.ledger_position), 0) "
+                + "+ coalesce((SELECT sum(s.balance) FROM wallet_stripes s WHERE s.user_id = w.user_id), 0) "
+                + "+ coalesce((SELECT sum(x.amount) FROM wallet_stripes s JOIN ledger_entries x "
+                + "ON x.user_id = s.user_id AND x.stripe = s.stripe AND x.id > s.ledger_position "
+                + "WHERE s.user_id = w.user_id), 0) "
+                + "FROM wallets w WHERE w.user_id = ?",
+            BigDecimal.class, userId);
+        // every entry so far is folded into total, so all new snapshots start after the newest one
+        Long position = jdbcTemplate.queryForObject(
+            "SELECT coalesce(max(id), 0) FROM ledger_entries WHERE user_id = ?", Long.class, userId);
+
+        jdbcTemplate.update("DELETE FROM wallet_stripes WHERE user_id = ?", userId);
+        if (stripes == 1) {
+            jdbcTemplate.update("UPDATE wallets SET balance = ?, ledger_position = ?, stripes = 1 WHERE user_id = ?",
+                total, position, userId);
+            return true;
+        }
+
+        BigDecimal share = total.divide(BigDecimal.valueOf(stripes), 2, RoundingMode.DOWN);
+        BigDecimal first = total.subtract(share.multiply(BigDecimal.valueOf(stripes - 1)));
+        List<Object[]> rows = new ArrayList<>(stripes);
+        for (int stripe = 1; stripe <= stripes; stripe++) {
+            rows.add(new Object[] {userId, stripe, stripe == 1 ? first : share, position});
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO wallet_stripes (user_id, stripe, balance, ledger_position) VALUES (?, ?, ?, ?)", rows);
+        jdbcTemplate.update("UPDATE wallets SET balance = 0, ledger_position = ?, stripes = ? WHERE user_id = ?",
+            position, stripes, userId);
+        return true;
+    }
+
+    // stripe slot for a movement; the transaction id keeps a redelivered event on the same stripe
+    static int slot(UUID transactionId, int stripes) {
+        if (stripes <= 1) {
+            return 0;
+        }
+        return transactionId != null
+            ? Math.floorMod(transactionId.hashCode(), stripes)
+            : ThreadLocalRandom.current().nextInt(stripes);
+    }
+
+    // Postgres orders uuids bytewise, i.e. as unsigned longs; UUID.compareTo is signed
+    static int compareIds(UUID a, UUID b) {
+        int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private List<Snapshot> lockStripes(UUID userId, int from, int to, boolean skipLocked) {
+        if (from > to) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            "SELECT stripe, balance, ledger_position FROM wallet_stripes WHERE user_id = ? AND stripe BETWEEN ? AND ? "
+                + "ORDER BY stripe FOR NO KEY UPDATE" + (skipLocked ? " SKIP LOCKED" : ""),
+            (rs, i) -> new Snapshot(rs.getInt(1), rs.getBigDecimal(2), rs.getLong(3)), userId, from, to);
+    }
+
+    // adds each locked stripe's ledger tail; keeps the order of the list
+    private StripedBalance withTails(UUID userId, List<Snapshot> locked) {
+        Integer[] stripeNumbers = new Integer[locked.size()];
+        Long[] positions = new Long[locked.size()];
+        for (int i = 0; i < locked.size(); i++) {
+            stripeNumbers[i] = locked.get(i).stripe;
+            positions[i] = locked.get(i).position;
+        }
+        Map<Integer, BigDecimal> tails = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT e.stripe, sum(e.amount) FROM ledger_entries e "
+                + "JOIN unnest(?, ?) AS p(stripe, pos) ON e.stripe = p.stripe AND e.id > p.pos "
+                + "WHERE e.user_id = ? GROUP BY e.stripe",
+            ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("int4", stripeNumbers));
+                ps.setArray(2, ps.getConnection().createArrayOf("int8", positions));
+                ps.setObject(3, userId);
+            },
+            rs -> {
+                tails.put(rs.getInt(1), rs.getBigDecimal(2));
+            });
+        return toBalance(userId, locked, tails);
+    }
+
+    private static StripedBalance toBalance(UUID userId, List<Snapshot> snapshots, Map<Integer, BigDecimal> tails) {
+        int[] stripes = new int[snapshots.size()];
+        BigDecimal[] balances = new BigDecimal[snapshots.size()];
+        for (int i = 0; i < snapshots.size(); i++) {
+            Snapshot snapshot = snapshots.get(i);
+            stripes[i] = snapshot.stripe;
+            balances[i] = snapshot.balance.add(tails.getOrDefault(snapshot.stripe, BigDecimal.ZERO));
+        }
+        return new StripedBalance(userId, stripes, balances);
+    }
+
+    private static final class Snapshot {
+        final int stripe;
+        final BigDecimal balance;
+        final long position;
+
+        Snapshot(int stripe, BigDecimal balance, long position) {
+            this.stripe = stripe;
+            this.balance = balance;
+            this.position = position;
+        }
+    }
+}
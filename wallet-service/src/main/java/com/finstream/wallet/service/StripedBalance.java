@@ -0,0 +1,67 @@
+package com.finstream.wallet.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.finstream.wallet.model.LedgerEntry;
+import com.finstream.wallet.model.LedgerEntryKind;
+
+/**
+ * The locked balances of one wallet: one slot per locked stripe, a single slot (stripe 0)
+ * for an unstriped wallet. Debits and credits update the slots as they produce ledger
+ * entries, so several movements can be decided against it in one transaction. No slot is
+ * ever taken below zero; a debit that doesn't fit in one slot is split across the next.
+ */
+public class StripedBalance {
+
+    private final UUID userId;
+    private final int[] stripes;
+    private final BigDecimal[] balances;
+
+    StripedBalance(UUID userId, int[] stripes, BigDecimal[] balances) {
+        this.userId = userId;
+        this.stripes = stripes;
+        this.balances = balances;
+    }
+
+    public UUID getUserId() { return userId; }
+
+    public BigDecimal total() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal balance : balances) {
+            total = total.add(balance);
+        }
+        return total;
+    }
+
+    /**
+     * Entries taking the amount from the slots in order, or null (and no change) if the
+     * slots together don't cover it.
+     */
+    public List<LedgerEntry> debit(UUID transactionId, BigDecimal amount, LedgerEntryKind kind) {
+        if (total().compareTo(amount) < 0) {
+            return null;
+        }
+        List<LedgerEntry> entries = new ArrayList<>(1);
+        BigDecimal remaining = amount;
+        for (int i = 0; i < balances.length && remaining.signum() > 0; i++) {
+            BigDecimal take = balances[i].min(remaining);
+            if (take.signum() <= 0) {
+                continue;
+            }
+            balances[i] = balances[i].subtract(take);
+            remaining = remaining.subtract(take);
+            entries.add(new LedgerEntry(userId, stripes[i], transactionId, take.negate(), kind));
+        }
+        return entries;
+    }
+
+    // credits land on the stripe picked by the transaction id, like single credits do
+    public LedgerEntry credit(UUID transactionId, BigDecimal amount, LedgerEntryKind kind) {
+        int i = LedgerService.slot(transactionId, balances.length);
+        balances[i] = balances[i].add(amount);
+        return new LedgerEntry(userId, stripes[i], transactionId, amount, kind);
+    }
+}
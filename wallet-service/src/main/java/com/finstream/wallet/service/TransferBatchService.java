@@ -0,0 +1,179 @@
+package com.finstream.wallet.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.finstream.wallet.dto.TransferInstruction;
+import com.finstream.wallet.model.FundHold;
+import com.finstream.wallet.model.HoldStatus;
+import com.finstream.wallet.model.LedgerEntry;
+import com.finstream.wallet.model.LedgerEntryKind;
+import com.finstream.wallet.model.ProcessedTransfer;
+import com.finstream.wallet.repository.FundHoldRepository;
+import com.finstream.wallet.repository.ProcessedTransferRepository;
+
+/**
+ * Applies a whole Kafka poll in one DB transaction. Every wallet involved is locked and
+ * read once, and transfers are decided in order against in-memory running balances. The
+ * movements are then netted per wallet stripe and kind and go out in a single INSERT, so
+ * 500 payments into one merchant become one ledger row and no rewrite of the merchant's
+ * wallet row. The per-transfer record is the processed_transfers row. Same rules as
+ * {@link WalletService#applyTransfer}.
+ */
+@Service
+public class TransferBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferBatchService.class);
+
+    private final LedgerService ledgerService;
+    private final FundHoldRepository fundHoldRepository;
+    private final ProcessedTransferRepository processedTransferRepository;
+    private final WalletBalanceCache balanceCache;
+
+    public TransferBatchService(LedgerService ledgerService, FundHoldRepository fundHoldRepository,
+                                ProcessedTransferRepository processedTransferRepository,
+                                WalletBalanceCache balanceCache) {
+        this.ledgerService = ledgerService;
+        this.fundHoldRepository = fundHoldRepository;
+        this.processedTransferRepository = processedTransferRepository;
+        this.balanceCache = balanceCache;
+    }
+
+    /**
+     * Returns one outcome per instruction, in the same order. An instruction whose
+     * transaction id was seen before gets its recorded outcome and is not applied again.
+     */
+    @Transactional
+    public List<ProcessedTransfer> applyBatch(List<TransferInstruction> instructions) {
+        Set<UUID> transactionIds = new LinkedHashSet<>();
+        for (TransferInstruction instruction : instructions) {
+            transactionIds.add(instruction.getTransactionId());
+        }
+
+        Map<UUID, ProcessedTransfer> seen = new HashMap<>();
+        Map<UUID, FundHold> holds = new HashMap<>();
+        processedTransferRepository.findAllById(transactionIds).forEach(p -> seen.put(p.getTransactionId(), p));
+        fundHoldRepository.findAllForUpdate(transactionIds).forEach(h -> holds.put(h.getTransactionId(), h));
+
+        Set<UUID> walletIds = new LinkedHashSet<>();
+        for (TransferInstruction instruction : instructions) {
+            walletIds.add(instruction.getSenderId());
+            walletIds.add(instruction.getReceiverId());
+        }
+        holds.values().forEach(h -> {
+            if (h.getUserId() != null) {
+                walletIds.add(h.getUserId());
+            }
+        });
+        // every wallet gets the debit lock: a receiver may also be a sender later in the poll
+        Map<UUID, StripedBalance> running = ledgerService.lockBalances(walletIds);
+        balanceCache.invalidateAfterCommit(walletIds);
+        List<LedgerEntry> entries = new ArrayList<>();
+
+        List<ProcessedTransfer> outcomes = new ArrayList<>(instructions.size());
+        List<ProcessedTransfer> toSave = new ArrayList<>();
+        for (TransferInstruction instruction : instructions) {
+            UUID transactionId = instruction.getTransactionId();
+            ProcessedTransfer previous = seen.get(transactionId);
+            if (previous != null) {
+                outcomes.add(previous);
+                continue;
+            }
+
+            FundHold hold = holds.get(transactionId);
+            String reason = hold != null
+                ? captureHold(hold, instruction.getReceiverId(), running, entries)
+                : debitAndCredit(instruction, running, entries);
+
+            ProcessedTransfer outcome = new ProcessedTransfer(transactionId, reason == null, reason);
+            seen.put(transactionId, outcome);
+            outcomes.add(outcome);
+            toSave.add(outcome);
+        }
+
+        List<LedgerEntry> netted = net(entries);
+        ledgerService.append(netted);
+        processedTransferRepository.saveAll(toSave);
+        log.debug("Applied {} transfer events as {} ledger entries over {} wallets",
+            instructions.size(), netted.size(), running.size());
+        return outcomes;
+    }
+
+    /**
+     * One entry per (wallet, stripe, kind) holding the sum of that poll's movements, in
+     * first-seen order. An entry keeps its transaction id only if it stands for a single
+     * transfer. Sums of zero are dropped.
+     */
+    static List<LedgerEntry> net(List<LedgerEntry> entries) {
+        Map<NetKey, LedgerEntry> sums = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            LedgerEntry sum = sums.putIfAbsent(new NetKey(entry.getUserId(), entry.getStripe(), entry.getKind()), entry);
+            if (sum != null) {
+                sum.setAmount(sum.getAmount().add(entry.getAmount()));
+                if (!Objects.equals(sum.getTransactionId(), entry.getTransactionId())) {
+                    sum.setTransactionId(null);
+                }
+            }
+        }
+        List<LedgerEntry> netted = new ArrayList<>(sums.size());
+        for (LedgerEntry sum : sums.values()) {
+            if (sum.getAmount().signum() != 0) {
+                netted.add(sum);
+            }
+        }
+        return netted;
+    }
+
+    private record NetKey(UUID userId, int stripe, LedgerEntryKind kind) {
+    }
+
+    private static String captureHold(FundHold hold, UUID receiverId,
+                                      Map<UUID, StripedBalance> running, List<LedgerEntry> entries) {
+        if (hold.getStatus() == HoldStatus.RELEASED) {
+            return "Reservation released";
+        }
+        if (hold.getStatus() == HoldStatus.CAPTURED) {
+            return null;
+        }
+        StripedBalance receiver = running.get(receiverId);
+        if (receiver == null) {
+            StripedBalance sender = running.get(hold.getUserId());
+            if (sender != null) {
+                entries.add(sender.credit(hold.getTransactionId(), hold.getAmount(), LedgerEntryKind.RELEASE));
+            }
+            hold.setStatus(HoldStatus.RELEASED);
+            return "Wallet not found";
+        }
+        entries.add(receiver.credit(hold.getTransactionId(), hold.getAmount(), LedgerEntryKind.CAPTURE));
+        hold.setStatus(HoldStatus.CAPTURED);
+        return null;
+    }
+
+    private static String debitAndCredit(TransferInstruction instruction,
+                                         Map<UUID, StripedBalance> running, List<LedgerEntry> entries) {
+        StripedBalance sender = running.get(instruction.getSenderId());
+        StripedBalance receiver = running.get(instruction.getReceiverId());
+        if (sender == null || receiver == null) {
+            return "Wallet not found";
+        }
+        List<LedgerEntry> debit = sender.debit(instruction.getTransactionId(), instruction.getAmount(), LedgerEntryKind.TRANSFER);
+        if (debit == null) {
+            return "Insufficient balance";
+        }
+        entries.addAll(debit);
+        entries.add(receiver.credit(instruction.getTransactionId(), instruction.getAmount(), LedgerEntryKind.TRANSFER));
+        return null;
+    }
+}
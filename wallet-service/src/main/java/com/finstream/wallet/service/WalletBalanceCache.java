@@ -0,0 +1,257 @@
+package com.finstream.wallet.service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.finstream.wallet.dto.WalletBalance;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded in-memory cache of wallet balances in front of Postgres.
+ * <p>
+ * Eviction is frequency-aware: a small count-min sketch estimates how often each wallet
+ * is read, and when the cache is full a newcomer only gets in if it is read more often
+ * than the oldest entry (which otherwise gets a second chance at the back of the queue).
+ * One-off lookups therefore can't flush the hot wallets.
+ * <p>
+ * Coherence: balance movements invalidate their wallets after commit on this replica, and
+ * {@code WalletCacheInvalidator} does the same on every replica from the transfer events
+ * and their results.
+ * A load in flight parks a placeholder in the map; an invalidation removes it, and the
+ * stale load is then not cached. Entries also expire after {@code wallet.cache.ttl-ms},
+ * which bounds staleness for movements no event is published for (released holds).
+ */
+@Component
+public class WalletBalanceCache {
+
+    private final ConcurrentHashMap<UUID, Node> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Object evictionLock = new Object();
+    private final FrequencySketch sketch;
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter invalidations;
+
+    public WalletBalanceCache(@Value("${wallet.cache.enabled:true}") boolean enabled,
+                              @Value("${wallet.cache.max-size:100000}") int maxSize,
+                              @Value("${wallet.cache.ttl-ms:30000}") long ttlMs,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.sketch = new FrequencySketch(maxSize);
+        Counter hitCounter = Counter.builder("wallet.cache.gets").tag("result", "hit")
+                .description("Balance reads served from the wallet cache")
+                .register(meterRegistry);
+        Counter missCounter = Counter.builder("wallet.cache.gets").tag("result", "miss")
+                .description("Balance reads that went to the database")
+                .register(meterRegistry);
+        this.hits = hitCounter;
+        this.misses = missCounter;
+        this.evictions = Counter.builder("wallet.cache.evictions")
+                .description("Wallets dropped, or refused, to keep the cache within max-size")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("wallet.cache.invalidations")
+                .description("Wallets invalidated by balance movements")
+                .register(meterRegistry);
+        Gauge.builder("wallet.cache.size", entries, ConcurrentHashMap::size)
+                .description("Wallets currently cached")
+                .register(meterRegistry);
+        Gauge.builder("wallet.cache.hit.ratio", () -> hitRatio(hitCounter, missCounter))
+                .description("Share of balance reads served from the cache since startup")
+                .register(meterRegistry);
+    }
+
+    private static double hitRatio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    public Optional<WalletBalance> get(UUID userId, Function<UUID, Optional<WalletBalance>> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        sketch.increment(userId);
+        long now = System.nanoTime();
+        Node node = entries.get(userId);
+        if (node != null && node.value != null) {
+            if (now - node.expiresAt < 0) {
+                hits.increment();
+                return Optional.of(node.value);
+            }
+            entries.remove(userId, node);
+        }
+        misses.increment();
+
+        // only the reader that parks the placeholder may cache what it loads
+        Node loading = new Node(userId, null, 0);
+        boolean owner = entries.putIfAbsent(userId, loading) == null;
+        Optional<WalletBalance> loaded;
+        try {
+            loaded = loader.apply(userId);
+        } catch (RuntimeException e) {
+            if (owner) {
+                entries.remove(userId, loading);
+            }
+            throw e;
+        }
+        if (owner) {
+            if (loaded.isPresent()) {
+                Node ready = new Node(userId, loaded.get(), System.nanoTime() + ttlNanos);
+                if (entries.replace(userId, loading, ready)) {
+                    order.add(ready);
+                    queued.incrementAndGet();
+                    evictIfNeeded(ready);
+                }
+            } else {
+                entries.remove(userId, loading);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(UUID userId) {
+        if (enabled && entries.remove(userId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Invalidates once the current transaction has finished, so a read can't cache the
+     * balance from before the commit. Without a transaction it invalidates right away.
+     */
+    public void invalidateAfterCommit(Collection<UUID> userIds) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userIds.forEach(this::invalidate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                userIds.forEach(WalletBalanceCache.this::invalidate);
+            }
+        });
+    }
+
+    private void evictIfNeeded(Node candidate) {
+        if (entries.size() <= maxSize && queued.get() <= 2 * maxSize) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (entries.size() > maxSize) {
+                Node victim = order.poll();
+                if (victim == null) {
+                    break;
+                }
+                queued.decrementAndGet();
+                if (entries.get(victim.userId) != victim) {
+                    continue; // invalidated or replaced since it was queued
+                }
+                boolean expired = System.nanoTime() - victim.expiresAt >= 0;
+                if (victim != candidate && !expired
+                        && sketch.frequency(candidate.userId) <= sketch.frequency(victim.userId)) {
+                    // the newcomer is no hotter than the oldest entry: keep the old one, drop the new
+                    order.add(victim);
+                    queued.incrementAndGet();
+                    victim = candidate;
+                }
+                if (entries.remove(victim.userId, victim)) {
+                    evictions.increment();
+                }
+            }
+            // invalidated entries leave dead queue nodes behind; sweep them now and then
+            if (queued.get() > 2 * maxSize) {
+                order.removeIf(n -> entries.get(n.userId) != n);
+                queued.set(order.size());
+            }
+        }
+    }
+
+    private static final class Node {
+        final UUID userId;
+        final WalletBalance value; // null while loading
+        final long expiresAt;
+
+        Node(UUID userId, WalletBalance value, long expiresAt) {
+            this.userId = userId;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of read frequencies: four counters per key, capped at 15, all halved
+     * every 10 * max-size reads so old popularity fades. Updates are unsynchronized; a lost
+     * increment only makes an estimate slightly low.
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+        };
+
+        private final int[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private final AtomicInteger additions = new AtomicInteger();
+
+        FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize) * 2 - 1) * 2;
+            this.counters = new int[width];
+            this.mask = width - 1;
+            this.sampleSize = Math.max(16, maxSize) * 10;
+        }
+
+        void increment(UUID key) {
+            long hash = key.getMostSignificantBits() ^ key.getLeastSignificantBits();
+            for (long seed : SEEDS) {
+                int i = index(hash, seed);
+                if (counters[i] < 15) {
+                    counters[i]++;
+                }
+            }
+            if (additions.incrementAndGet() >= sampleSize) {
+                additions.set(0);
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>>= 1;
+                }
+            }
+        }
+
+        int frequency(UUID key) {
+            long hash = key.getMostSignificantBits() ^ key.getLeastSignificantBits();
+            int min = 15;
+            for (long seed : SEEDS) {
+                min = Math.min(min, counters[index(hash, seed)]);
+            }
+            return min;
+        }
+
+        private int index(long hash, long seed) {
+            long h = (hash + seed) * seed;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.finstream.wallet.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.finstream.wallet.model.Wallet;
+import com.finstream.common.money.Money;
+import com.finstream.wallet.dto.WalletBalance;
+import com.finstream.wallet.model.FundHold;
+import com.finstream.wallet.model.HoldStatus;
+import com.finstream.wallet.model.LedgerEntry;
+import com.finstream.wallet.model.LedgerEntryKind;
+import com.finstream.wallet.model.ProcessedTransfer;
+import com.finstream.wallet.repository.FundHoldRepository;
+import com.finstream.wallet.repository.ProcessedTransferRepository;
 import com.finstream.wallet.repository.UserRepository;
 import com.finstream.wallet.repository.WalletRepository;
 
@@ -15,32 +25,151 @@ import com.finstream.wallet.repository.WalletRepository;
 public class WalletService {
     private final WalletRepository walletRepository;
     private final UserRepository userRepository;
+    private final ProcessedTransferRepository processedTransferRepository;
+    private final FundHoldRepository fundHoldRepository;
+    private final LedgerService ledgerService;
+    private final WalletBalanceCache balanceCache;
 
-    public WalletService(WalletRepository walletRepository, UserRepository userRepository) {
+    public WalletService(WalletRepository walletRepository, UserRepository userRepository,
+                         ProcessedTransferRepository processedTransferRepository,
+                         FundHoldRepository fundHoldRepository, LedgerService ledgerService,
+                         WalletBalanceCache balanceCache) {
         this.walletRepository = walletRepository;
         this.userRepository = userRepository;
+        this.processedTransferRepository = processedTransferRepository;
+        this.fundHoldRepository = fundHoldRepository;
+        this.ledgerService = ledgerService;
+        this.balanceCache = balanceCache;
     }
 
-    public Optional<Wallet> getWalletByUserId(UUID userId) {
-        return walletRepository.findByUserId(userId);
+    /**
+     * Balance for reads that can tolerate the cache's bounded staleness (the balance
+     * endpoint and gRPC balance checks). Anything that moves money locks and re-reads.
+     */
+    public Optional<WalletBalance> getBalance(UUID userId) {
+        return balanceCache.get(userId, id -> walletRepository.findByUserId(id)
+            .map(w -> new WalletBalance(w.getUserId(),
+                Money.of(w.getCurrentBalance(), w.getCurrency() != null ? w.getCurrency() : Money.USD))));
     }
 
     public boolean userIsValid(UUID userId) {
         return userRepository.findById(userId).isPresent();
     }
 
+    /**
+     * Atomically debits the sender and places a hold for the transfer. Returns null once
+     * the money is held, otherwise why not: the wallet is missing or short, or the transfer
+     * was already released. Calling it again for the same transfer returns the earlier
+     * answer without debiting twice.
+     */
     @Transactional
-    public void applyTransaction(UUID senderId, UUID receiverId, BigDecimal amount) {
-        // Atomic transaction: decrease sender balance and increase receiver balance
-        // @Transactional ensures database-level consistency and prevents race conditions
-        walletRepository.findByUserId(senderId).ifPresent(senderWallet -> {
-            senderWallet.setBalance(senderWallet.getBalance().subtract(amount));
-            walletRepository.save(senderWallet);
-        });
-
-        walletRepository.findByUserId(receiverId).ifPresent(receiverWallet -> {
-            receiverWallet.setBalance(receiverWallet.getBalance().add(amount));
-            walletRepository.save(receiverWallet);
-        });
+    public String reserveFunds(UUID transactionId, UUID userId, BigDecimal amount) {
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        Optional<FundHold> existing = fundHoldRepository.findById(transactionId);
+        if (existing.isPresent()) {
+            return existing.get().getStatus() == HoldStatus.RELEASED ? "Reservation released" : null;
+        }
+        String reason = ledgerService.debit(userId, transactionId, amount, LedgerEntryKind.HOLD);
+        if (reason != null) {
+            return reason;
+        }
+        balanceCache.invalidateAfterCommit(List.of(userId));
+        fundHoldRepository.save(new FundHold(transactionId, userId, amount, HoldStatus.HELD));
+        return null;
+    }
+
+    /**
+     * Puts held funds back. Returns false only if the hold was already captured.
+     */
+    @Transactional
+    public boolean releaseFunds(UUID transactionId) {
+        Optional<FundHold> existing = fundHoldRepository.findForUpdate(transactionId);
+        if (existing.isEmpty()) {
+            fundHoldRepository.save(new FundHold(transactionId, null, BigDecimal.ZERO, HoldStatus.RELEASED));
+            return true;
+        }
+        FundHold hold = existing.get();
+        if (hold.getStatus() == HoldStatus.CAPTURED) {
+            return false;
+        }
+        if (hold.getStatus() == HoldStatus.HELD) {
+            ledgerService.credit(hold.getUserId(), transactionId, hold.getAmount(), LedgerEntryKind.RELEASE);
+            hold.setStatus(HoldStatus.RELEASED);
+            balanceCache.invalidateAfterCommit(List.of(hold.getUserId()));
+        }
+        return true;
+    }
+
+    /**
+     * Applies a transfer identified by its transaction-service id. If ReserveFunds already
+     * took the money this only credits the receiver; otherwise the sender is checked and
+     * debited here. Idempotent: a transfer seen before returns its recorded outcome
+     * without touching the balances again.
+     */
+    @Transactional
+    public ProcessedTransfer applyTransfer(UUID transactionId, UUID senderId, UUID receiverId, BigDecimal amount) {
+        Optional<ProcessedTransfer> previous = processedTransferRepository.findById(transactionId);
+        if (previous.isPresent()) {
+            return previous.get();
+        }
+
+        Optional<FundHold> hold = fundHoldRepository.findForUpdate(transactionId);
+        String reason = hold.isPresent()
+            ? captureHold(hold.get(), receiverId)
+            : moveFunds(transactionId, senderId, receiverId, amount);
+        return processedTransferRepository.save(new ProcessedTransfer(transactionId, reason == null, reason));
+    }
+
+    // returns the rejection reason, or null once the receiver has been credited
+    private String captureHold(FundHold hold, UUID receiverId) {
+        if (hold.getStatus() == HoldStatus.RELEASED) {
+            return "Reservation released";
+        }
+        if (hold.getStatus() == HoldStatus.CAPTURED) {
+            return null;
+        }
+        balanceCache.invalidateAfterCommit(List.of(hold.getUserId(), receiverId));
+        if (!ledgerService.credit(receiverId, hold.getTransactionId(), hold.getAmount(), LedgerEntryKind.CAPTURE)) {
+            ledgerService.credit(hold.getUserId(), hold.getTransactionId(), hold.getAmount(), LedgerEntryKind.RELEASE);
+            hold.setStatus(HoldStatus.RELEASED);
+            return "Wallet not found";
+        }
+        hold.setStatus(HoldStatus.CAPTURED);
+        return null;
+    }
+
+    /**
+     * Checks the sender's balance under its debit lock and posts the debit/credit entries to
+     * the ledger; no wallet or stripe row is rewritten. The two wallets are locked in
+     * {@link LedgerService} lock order, the order {@link TransferBatchService} and the
+     * compactor use, so nothing can deadlock. Returns the rejection reason, or null if the
+     * money moved.
+     */
+    private String moveFunds(UUID transactionId, UUID senderId, UUID receiverId, BigDecimal amount) {
+        balanceCache.invalidateAfterCommit(List.of(senderId, receiverId));
+        int senderStripes = ledgerService.stripeCount(senderId);
+        int receiverStripes = ledgerService.stripeCount(receiverId);
+        StripedBalance sender;
+        Integer receiverStripe;
+        if (LedgerService.locksBefore(senderId, senderStripes, receiverId, receiverStripes)) {
+            sender = ledgerService.lockForDebit(senderId, senderStripes, transactionId, amount);
+            receiverStripe = ledgerService.lockForCredit(receiverId, receiverStripes, transactionId);
+        } else {
+            receiverStripe = ledgerService.lockForCredit(receiverId, receiverStripes, transactionId);
+            sender = ledgerService.lockForDebit(senderId, senderStripes, transactionId, amount);
+        }
+        if (sender == null || receiverStripe == null) {
+            return "Wallet not found";
+        }
+        List<LedgerEntry> entries = sender.debit(transactionId, amount, LedgerEntryKind.TRANSFER);
+        if (entries == null) {
+            return "Insufficient balance";
+        }
+        entries = new ArrayList<>(entries);
+        entries.add(new LedgerEntry(receiverId, receiverStripe, transactionId, amount, LedgerEntryKind.TRANSFER));
+        ledgerService.append(entries);
+        return null;
     }
 }
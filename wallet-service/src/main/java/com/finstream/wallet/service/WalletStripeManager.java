@@ -0,0 +1,115 @@
+package com.finstream.wallet.service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Stripes wallets that get hot and unstripes them once they cool down. Load is measured as
+ * ledger entries per compaction run per stripe: above promote-entries-per-stripe the wallet
+ * gets initial-stripes (or double its current stripes, up to max-stripes); a striped wallet
+ * that stays under demote-entries for demote-after-runs runs goes back to one row.
+ */
+@Component
+public class WalletStripeManager {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletStripeManager.class);
+
+    private final LedgerService ledgerService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter promotedCounter;
+    private final Counter demotedCounter;
+    private final Map<UUID, Integer> quietRuns = new ConcurrentHashMap<>();
+    private final AtomicInteger stripedWallets = new AtomicInteger();
+
+    @Value("${wallet.stripes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${wallet.stripes.initial-stripes:4}")
+    private int initialStripes;
+
+    @Value("${wallet.stripes.max-stripes:16}")
+    private int maxStripes;
+
+    @Value("${wallet.stripes.promote-entries-per-stripe:500}")
+    private int promoteEntriesPerStripe;
+
+    @Value("${wallet.stripes.demote-entries:50}")
+    private int demoteEntries;
+
+    @Value("${wallet.stripes.demote-after-runs:12}")
+    private int demoteAfterRuns;
+
+    public WalletStripeManager(LedgerService ledgerService, TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.ledgerService = ledgerService;
+        this.transactionTemplate = transactionTemplate;
+        this.promotedCounter = Counter.builder("wallet.stripes.promoted")
+                .description("Wallets striped, or given more stripes, because of load")
+                .register(meterRegistry);
+        this.demotedCounter = Counter.builder("wallet.stripes.demoted")
+                .description("Striped wallets folded back into one row after going quiet")
+                .register(meterRegistry);
+        Gauge.builder("wallet.stripes.wallets", stripedWallets, AtomicInteger::get)
+                .description("Wallets currently striped")
+                .register(meterRegistry);
+    }
+
+    /** Called after each compaction run with the entries folded per wallet in that run. */
+    public void adjust(Map<UUID, Integer> entriesByWallet) {
+        if (!enabled) {
+            return;
+        }
+        Map<UUID, Integer> striped = ledgerService.findStriped();
+
+        entriesByWallet.forEach((userId, entries) -> {
+            int stripes = striped.getOrDefault(userId, 1);
+            if (stripes >= maxStripes || entries / stripes < promoteEntriesPerStripe) {
+                return;
+            }
+            int target = Math.min(maxStripes, stripes == 1 ? initialStripes : stripes * 2);
+            if (restripe(userId, target)) {
+                promotedCounter.increment();
+                striped.put(userId, target);
+                log.info("Wallet {} striped {} -> {} after {} entries in one compaction run", userId, stripes, target, entries);
+            }
+        });
+
+        quietRuns.keySet().retainAll(striped.keySet());
+        int stillStriped = striped.size();
+        for (UUID userId : striped.keySet()) {
+            if (entriesByWallet.getOrDefault(userId, 0) >= demoteEntries) {
+                quietRuns.remove(userId);
+                continue;
+            }
+            if (quietRuns.merge(userId, 1, Integer::sum) >= demoteAfterRuns && restripe(userId, 1)) {
+                quietRuns.remove(userId);
+                stillStriped--;
+                demotedCounter.increment();
+                log.info("Wallet {} unstriped after {} quiet compaction runs", userId, demoteAfterRuns);
+            }
+        }
+        stripedWallets.set(stillStriped);
+    }
+
+    private boolean restripe(UUID userId, int stripes) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> ledgerService.restripe(userId, stripes)));
+        } catch (RuntimeException e) {
+            log.warn("Restriping wallet {} to {} stripes failed: {}", userId, stripes, e.getMessage());
+            return false;
+        }
+    }
+}
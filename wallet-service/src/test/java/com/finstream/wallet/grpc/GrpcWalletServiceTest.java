@@ -0,0 +1,80 @@
+package com.finstream.wallet.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.finstream.common.grpc.ReserveFundsRequest;
+import com.finstream.common.grpc.ReserveFundsResponse;
+import com.finstream.wallet.service.WalletService;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+class GrpcWalletServiceTest {
+
+    private final WalletService walletService = mock(WalletService.class);
+    private final GrpcWalletService service = new GrpcWalletService(walletService);
+
+    @Test
+    void rejectsANonPositiveAmountWithoutPlacingAHold() {
+        for (long minor : new long[] {0, -100}) {
+            @SuppressWarnings("unchecked")
+            StreamObserver<ReserveFundsResponse> observer = mock(StreamObserver.class);
+
+            service.reserveFunds(request(minor), observer);
+
+            ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+            verify(observer).onError(error.capture());
+            assertThat(Status.fromThrowable(error.getValue()).getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        }
+        verifyNoInteractions(walletService);
+    }
+
+    @Test
+    void reportsWhyTheWalletServiceRefusedTheHold() {
+        when(walletService.reserveFunds(any(), any(), any())).thenReturn("Wallet not found");
+
+        assertThat(reserve(request(500))).satisfies(response -> {
+            assertThat(response.getReserved()).isFalse();
+            assertThat(response.getReason()).isEqualTo("Wallet not found");
+        });
+    }
+
+    @Test
+    void reservesInMajorUnits() {
+        ReserveFundsRequest request = request(1_234);
+
+        assertThat(reserve(request).getReserved()).isTrue();
+        verify(walletService).reserveFunds(eq(UUID.fromString(request.getTransactionId())),
+            eq(UUID.fromString(request.getUserId())), eq(new BigDecimal("12.34")));
+    }
+
+    private ReserveFundsResponse reserve(ReserveFundsRequest request) {
+        @SuppressWarnings("unchecked")
+        StreamObserver<ReserveFundsResponse> observer = mock(StreamObserver.class);
+        service.reserveFunds(request, observer);
+        ArgumentCaptor<ReserveFundsResponse> response = ArgumentCaptor.forClass(ReserveFundsResponse.class);
+        verify(observer).onNext(response.capture());
+        verify(observer).onCompleted();
+        return response.getValue();
+    }
+
+    private static ReserveFundsRequest request(long amountMinor) {
+        return ReserveFundsRequest.newBuilder()
+            .setTransactionId(UUID.randomUUID().toString())
+            .setUserId(UUID.randomUUID().toString())
+            .setAmountMinor(amountMinor)
+            .build();
+    }
+}
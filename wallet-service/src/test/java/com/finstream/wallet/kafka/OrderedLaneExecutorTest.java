@@ -0,0 +1,96 @@
+package com.finstream.wallet.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class OrderedLaneExecutorTest {
+
+    private OrderedLaneExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void runsEachKeysItemsInOrderAcrossSeveralLanes() {
+        executor = new OrderedLaneExecutor(4);
+        // interleaved as a poll would return them: w0-0, w1-0, ... w7-0, w0-1, ...
+        List<Item> items = new ArrayList<>();
+        for (int seq = 0; seq < 50; seq++) {
+            for (int wallet = 0; wallet < 8; wallet++) {
+                items.add(new Item("wallet-" + wallet, seq));
+            }
+        }
+        Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        int failed = executor.runAll(items, Item::key, item -> {
+            threads.add(Thread.currentThread().getName());
+            applied.computeIfAbsent(item.key(), k -> Collections.synchronizedList(new ArrayList<>())).add(item.seq());
+        });
+
+        assertThat(failed).isEqualTo(-1);
+        assertThat(applied).hasSize(8);
+        applied.values().forEach(seqs -> assertThat(seqs).hasSize(50).isSorted());
+        assertThat(threads).hasSizeGreaterThan(1).allMatch(name -> name.startsWith("wallet-lane-"));
+    }
+
+    @Test
+    void stopsALaneAtItsFirstFailure() {
+        executor = new OrderedLaneExecutor(1);
+        List<Item> items = List.of(new Item("a", 0), new Item("a", 1), new Item("a", 2), new Item("a", 3));
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+
+        int failed = executor.runAll(items, Item::key, item -> {
+            if (item.seq() == 1) {
+                throw new IllegalStateException("boom");
+            }
+            applied.add(item.seq());
+        });
+
+        assertThat(failed).isEqualTo(1);
+        // later items for the key must not be applied ahead of the one that failed
+        assertThat(applied).containsExactly(0);
+    }
+
+    @Test
+    void reportsTheLowestFailedIndex() {
+        executor = new OrderedLaneExecutor(4);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new Item("wallet-" + (i % 5), i));
+        }
+
+        int failed = executor.runAll(items, Item::key, item -> {
+            if (item.seq() == 7 || item.seq() == 13) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertThat(failed).isEqualTo(7);
+    }
+
+    @Test
+    void runsItemsWithoutAKey() {
+        executor = new OrderedLaneExecutor(2);
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+
+        int failed = executor.runAll(List.of(new Item(null, 0), new Item(null, 1)), Item::key,
+            item -> applied.add(item.seq()));
+
+        assertThat(failed).isEqualTo(-1);
+        assertThat(applied).containsExactly(0, 1);
+    }
+
+    private record Item(String key, int seq) {}
+}
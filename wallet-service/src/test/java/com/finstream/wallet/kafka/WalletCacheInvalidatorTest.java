@@ -0,0 +1,75 @@
+package com.finstream.wallet.kafka;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finstream.common.events.TransactionEventSerializer;
+import com.finstream.common.events.TransactionEvents;
+import com.finstream.wallet.dto.TransactionResultEvent;
+import com.finstream.wallet.service.WalletBalanceCache;
+
+class WalletCacheInvalidatorTest {
+
+    private final WalletBalanceCache balanceCache = mock(WalletBalanceCache.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final WalletCacheInvalidator invalidator =
+        new WalletCacheInvalidator(balanceCache, new KafkaProperties(), objectMapper);
+
+    private final UUID sender = UUID.randomUUID();
+    private final UUID receiver = UUID.randomUUID();
+
+    @Test
+    void invalidatesTheSenderOfATransferEvent() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] value = new TransactionEventSerializer().serialize(WalletCacheInvalidator.TRANSACTIONS_TOPIC, headers,
+            TransactionEvents.of(UUID.randomUUID(), sender, receiver, new BigDecimal("1.00")));
+
+        invalidator.invalidate(record(WalletCacheInvalidator.TRANSACTIONS_TOPIC, headers, value));
+
+        verify(balanceCache).invalidate(sender);
+        verifyNoMoreInteractions(balanceCache);
+    }
+
+    @Test
+    void invalidatesBothWalletsOfAResult() throws Exception {
+        byte[] value = objectMapper.writeValueAsBytes(
+            new TransactionResultEvent(UUID.randomUUID(), false, "Wallet not found", sender, receiver));
+
+        invalidator.invalidate(record(WalletCacheInvalidator.RESULTS_TOPIC, new RecordHeaders(), value));
+
+        verify(balanceCache).invalidate(sender);
+        verify(balanceCache).invalidate(receiver);
+    }
+
+    @Test
+    void skipsResultsWithoutWalletIdsAndUnreadableRecords() throws Exception {
+        byte[] legacy = objectMapper.writeValueAsBytes(new TransactionResultEvent(UUID.randomUUID(), true, null, null, null));
+
+        invalidator.invalidate(record(WalletCacheInvalidator.RESULTS_TOPIC, new RecordHeaders(), legacy));
+        invalidator.invalidate(record(WalletCacheInvalidator.RESULTS_TOPIC, new RecordHeaders(),
+            "not json".getBytes(StandardCharsets.UTF_8)));
+        invalidator.invalidate(record(WalletCacheInvalidator.TRANSACTIONS_TOPIC, new RecordHeaders(),
+            "{\"senderId\":\"nope\"}".getBytes(StandardCharsets.UTF_8)));
+
+        verifyNoInteractions(balanceCache);
+    }
+
+    private static ConsumerRecord<String, byte[]> record(String topic, RecordHeaders headers, byte[] value) {
+        return new ConsumerRecord<>(topic, 0, 0L, 0L, TimestampType.CREATE_TIME, -1, value.length,
+            null, value, headers, Optional.empty());
+    }
+}
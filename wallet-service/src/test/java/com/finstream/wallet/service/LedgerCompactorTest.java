@@ -0,0 +1,74 @@
+package com.finstream.wallet.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LedgerCompactorTest {
+
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private final WalletStripeManager stripeManager = mock(WalletStripeManager.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LedgerCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        compactor = new LedgerCompactor(ledgerService, stripeManager, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(compactor, "batchSize", 2);
+        ReflectionTestUtils.setField(compactor, "maxBatchesPerRun", 10);
+    }
+
+    @Test
+    void drainsUntilABatchComesBackShortAndReportsEntriesPerWallet() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        when(ledgerService.findUncompacted(2)).thenReturn(List.of(a, b), List.of(c));
+        when(ledgerService.compact(List.of(a, b))).thenReturn(Map.of(a, 5, b, 1));
+        when(ledgerService.compact(List.of(c))).thenReturn(Map.of(c, 2));
+        // a is striped, so its stripe tails are folded in the second pass
+        when(ledgerService.findUncompactedStripes(2)).thenReturn(List.of(a));
+        when(ledgerService.compactStripes(List.of(a))).thenReturn(Map.of(a, 7));
+
+        compactor.compact();
+
+        verify(ledgerService, times(2)).findUncompacted(2);
+        verify(ledgerService, times(1)).findUncompactedStripes(2);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, Integer>> folded = ArgumentCaptor.forClass(Map.class);
+        verify(stripeManager).adjust(folded.capture());
+        assertThat(folded.getValue()).containsExactlyInAnyOrderEntriesOf(Map.of(a, 12, b, 1, c, 2));
+        assertThat(meterRegistry.counter("wallet.ledger.compacted").count()).isEqualTo(15);
+    }
+
+    @Test
+    void stopsAfterMaxBatchesPerRun() {
+        ReflectionTestUtils.setField(compactor, "maxBatchesPerRun", 3);
+        when(ledgerService.findUncompacted(2)).thenReturn(List.of(UUID.randomUUID(), UUID.randomUUID()));
+        when(ledgerService.compact(any())).thenReturn(Map.of());
+        when(ledgerService.findUncompactedStripes(2)).thenReturn(List.of());
+
+        compactor.compact();
+
+        verify(ledgerService, times(3)).findUncompacted(2);
+    }
+}
@@ -0,0 +1,70 @@
+package com.finstream.wallet.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.finstream.wallet.model.LedgerEntry;
+import com.finstream.wallet.model.LedgerEntryKind;
+
+class StripedBalanceTest {
+
+    private static final UUID USER = UUID.randomUUID();
+
+    @Test
+    void splitsADebitAcrossStripesWithoutTakingAnyBelowZero() {
+        StripedBalance balance = balance("3.00", "0.00", "5.00");
+
+        List<LedgerEntry> entries = balance.debit(UUID.randomUUID(), new BigDecimal("4.00"), LedgerEntryKind.TRANSFER);
+
+        assertThat(entries).extracting(LedgerEntry::getStripe).containsExactly(1, 3);
+        assertThat(entries).extracting(LedgerEntry::getAmount)
+            .containsExactly(new BigDecimal("-3.00"), new BigDecimal("-1.00"));
+        assertThat(balance.total()).isEqualByComparingTo("4.00");
+    }
+
+    @Test
+    void refusesADebitTheStripesTogetherCannotCover() {
+        StripedBalance balance = balance("3.00", "2.00");
+
+        assertThat(balance.debit(UUID.randomUUID(), new BigDecimal("5.01"), LedgerEntryKind.TRANSFER)).isNull();
+        assertThat(balance.total()).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void creditsTheStripeChosenByTheTransactionId() {
+        StripedBalance balance = balance("0.00", "0.00", "0.00", "0.00");
+        UUID transactionId = UUID.randomUUID();
+
+        LedgerEntry first = balance.credit(transactionId, new BigDecimal("1.00"), LedgerEntryKind.TRANSFER);
+        LedgerEntry redelivered = balance.credit(transactionId, new BigDecimal("1.00"), LedgerEntryKind.TRANSFER);
+
+        assertThat(first.getStripe()).isEqualTo(LedgerService.slot(transactionId, 4) + 1);
+        assertThat(redelivered.getStripe()).isEqualTo(first.getStripe());
+        assertThat(balance.total()).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    void comparesIdsAsUnsignedLikePostgres() {
+        UUID low = new UUID(0x7FFF_FFFF_FFFF_FFFFL, 0);
+        UUID high = new UUID(0x8000_0000_0000_0000L, 0);
+
+        assertThat(LedgerService.compareIds(low, high)).isNegative();
+        assertThat(LedgerService.compareIds(high, high)).isZero();
+    }
+
+    // stripes are numbered from 1, as in wallet_stripes
+    private static StripedBalance balance(String... amounts) {
+        int[] stripes = new int[amounts.length];
+        BigDecimal[] balances = new BigDecimal[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            stripes[i] = i + 1;
+            balances[i] = new BigDecimal(amounts[i]);
+        }
+        return new StripedBalance(USER, stripes, balances);
+    }
+}
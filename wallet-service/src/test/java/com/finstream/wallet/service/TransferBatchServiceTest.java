@@ -0,0 +1,113 @@
+package com.finstream.wallet.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.finstream.wallet.dto.TransferInstruction;
+import com.finstream.wallet.model.LedgerEntry;
+import com.finstream.wallet.model.LedgerEntryKind;
+import com.finstream.wallet.model.ProcessedTransfer;
+import com.finstream.wallet.repository.FundHoldRepository;
+import com.finstream.wallet.repository.ProcessedTransferRepository;
+
+class TransferBatchServiceTest {
+
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private final TransferBatchService service = new TransferBatchService(ledgerService,
+        mock(FundHoldRepository.class), mock(ProcessedTransferRepository.class), mock(WalletBalanceCache.class));
+
+    @Test
+    void netsPaymentsIntoOneMerchantIntoOneLedgerRow() {
+        UUID merchant = UUID.randomUUID();
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        lockBalances(Map.of(merchant, "0.00", alice, "10.00", bob, "10.00"));
+
+        List<ProcessedTransfer> outcomes = service.applyBatch(List.of(
+            transfer(alice, merchant, "1.00"), transfer(bob, merchant, "2.00"), transfer(alice, merchant, "3.00")));
+
+        assertThat(outcomes).allMatch(ProcessedTransfer::isApplied);
+        List<LedgerEntry> appended = appended();
+        assertThat(appended).filteredOn(e -> e.getUserId().equals(merchant)).singleElement()
+            .satisfies(credit -> {
+                assertThat(credit.getAmount()).isEqualByComparingTo("6.00");
+                assertThat(credit.getTransactionId()).isNull();
+            });
+        assertThat(appended).filteredOn(e -> e.getUserId().equals(alice)).singleElement()
+            .satisfies(debit -> assertThat(debit.getAmount()).isEqualByComparingTo("-4.00"));
+        assertThat(appended).hasSize(3);
+    }
+
+    @Test
+    void keepsTheTransactionIdOfAnEntryForASingleTransfer() {
+        UUID sender = UUID.randomUUID();
+        UUID receiver = UUID.randomUUID();
+        lockBalances(Map.of(sender, "5.00", receiver, "0.00"));
+        TransferInstruction transfer = transfer(sender, receiver, "5.00");
+
+        service.applyBatch(List.of(transfer));
+
+        assertThat(appended()).extracting(LedgerEntry::getTransactionId)
+            .containsOnly(transfer.getTransactionId());
+    }
+
+    @Test
+    void dropsMovementsThatCancelOut() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        lockBalances(Map.of(a, "5.00", b, "5.00"));
+
+        service.applyBatch(List.of(transfer(a, b, "2.00"), transfer(b, a, "2.00")));
+
+        assertThat(appended()).isEmpty();
+    }
+
+    @Test
+    void netsPerStripeAndKind() {
+        UUID user = UUID.randomUUID();
+        List<LedgerEntry> netted = TransferBatchService.net(List.of(
+            new LedgerEntry(user, 1, UUID.randomUUID(), new BigDecimal("1.00"), LedgerEntryKind.TRANSFER),
+            new LedgerEntry(user, 2, UUID.randomUUID(), new BigDecimal("1.00"), LedgerEntryKind.TRANSFER),
+            new LedgerEntry(user, 1, UUID.randomUUID(), new BigDecimal("1.00"), LedgerEntryKind.CAPTURE),
+            new LedgerEntry(user, 1, UUID.randomUUID(), new BigDecimal("2.00"), LedgerEntryKind.TRANSFER)));
+
+        assertThat(netted).extracting(LedgerEntry::getStripe, LedgerEntry::getKind)
+            .containsExactly(
+                tuple(1, LedgerEntryKind.TRANSFER),
+                tuple(2, LedgerEntryKind.TRANSFER),
+                tuple(1, LedgerEntryKind.CAPTURE));
+        assertThat(netted.get(0).getAmount()).isEqualByComparingTo("3.00");
+    }
+
+    // every wallet unstriped, all in stripe 0
+    private void lockBalances(Map<UUID, String> balances) {
+        Map<UUID, StripedBalance> locked = new HashMap<>();
+        balances.forEach((user, balance) ->
+            locked.put(user, new StripedBalance(user, new int[] {0}, new BigDecimal[] {new BigDecimal(balance)})));
+        when(ledgerService.lockBalances(anyCollection())).thenReturn(locked);
+    }
+
+    private List<LedgerEntry> appended() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerService).append(entries.capture());
+        return entries.getValue();
+    }
+
+    private static TransferInstruction transfer(UUID sender, UUID receiver, String amount) {
+        return new TransferInstruction(UUID.randomUUID(), sender, receiver, new BigDecimal(amount));
+    }
+}
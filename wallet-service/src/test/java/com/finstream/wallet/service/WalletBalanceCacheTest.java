@@ -0,0 +1,138 @@
+package com.finstream.wallet.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.finstream.common.money.Money;
+import com.finstream.wallet.dto.WalletBalance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WalletBalanceCacheTest {
+
+    private final UUID wallet = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesRepeatReadsFromMemory() {
+        WalletBalanceCache cache = cache(10, 60_000);
+
+        cache.get(wallet, loader(100));
+        Optional<WalletBalance> second = cache.get(wallet, loader(200));
+
+        assertThat(second).map(b -> b.getBalance().getMinorUnits()).contains(100L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void dropsALoadThatAnInvalidationOvertook() {
+        WalletBalanceCache cache = cache(10, 60_000);
+
+        // the balance moves (and is invalidated) while the old value is being read
+        cache.get(wallet, id -> {
+            cache.invalidate(id);
+            return loader(100).apply(id);
+        });
+        cache.get(wallet, loader(150));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get(wallet, loader(999))).map(b -> b.getBalance().getMinorUnits()).contains(150L);
+    }
+
+    @Test
+    void onlyThePlaceholderOwnerCachesItsLoad() {
+        WalletBalanceCache cache = cache(10, 60_000);
+
+        // a second reader arrives while the first is loading: it loads too, but doesn't cache
+        cache.get(wallet, id -> {
+            Optional<WalletBalance> concurrent = cache.get(id, loader(50));
+            assertThat(concurrent).isPresent();
+            return loader(100).apply(id);
+        });
+
+        assertThat(cache.get(wallet, loader(999))).map(b -> b.getBalance().getMinorUnits()).contains(100L);
+    }
+
+    @Test
+    void clearsThePlaceholderWhenTheLoadFails() {
+        WalletBalanceCache cache = cache(10, 60_000);
+
+        assertThatThrownBy(() -> cache.get(wallet, id -> {
+            throw new IllegalStateException("database down");
+        })).isInstanceOf(IllegalStateException.class);
+        cache.get(wallet, loader(100));
+
+        assertThat(cache.get(wallet, loader(999))).map(b -> b.getBalance().getMinorUnits()).contains(100L);
+    }
+
+    @Test
+    void doesNotCacheMissingWallets() {
+        WalletBalanceCache cache = cache(10, 60_000);
+
+        cache.get(wallet, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.get(wallet, loader(100));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void reloadsExpiredEntries() {
+        WalletBalanceCache cache = cache(10, 0);
+
+        cache.get(wallet, loader(100));
+        cache.get(wallet, loader(100));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void keepsHotWalletsWhenOneOffReadsArrive() {
+        WalletBalanceCache cache = cache(2, 60_000);
+        // fixed ids, so the sketch's estimates can't collide differently from run to run
+        UUID hotA = new UUID(1, 1);
+        UUID hotB = new UUID(2, 2);
+        for (int i = 0; i < 5; i++) {
+            cache.get(hotA, loader(1));
+            cache.get(hotB, loader(2));
+        }
+        int loadsBefore = loads.get();
+
+        cache.get(new UUID(3, 3), loader(3));
+        cache.get(hotA, loader(1));
+        cache.get(hotB, loader(2));
+
+        // only the newcomer was loaded; it was refused rather than evicting a hot wallet
+        assertThat(loads.get() - loadsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void passesStraightThroughWhenDisabled() {
+        WalletBalanceCache cache = new WalletBalanceCache(false, 10, 60_000, new SimpleMeterRegistry());
+
+        cache.get(wallet, loader(100));
+        cache.get(wallet, loader(100));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static WalletBalanceCache cache(int maxSize, long ttlMs) {
+        return new WalletBalanceCache(true, maxSize, ttlMs, new SimpleMeterRegistry());
+    }
+
+    private Function<UUID, Optional<WalletBalance>> loader(long cents) {
+        return id -> {
+            loads.incrementAndGet();
+            return Optional.of(new WalletBalance(id, Money.ofMinor(cents, Money.USD)));
+        };
+    }
+}